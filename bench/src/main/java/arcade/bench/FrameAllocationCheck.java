@@ -0,0 +1,316 @@
+package arcade.bench;
+
+import arcade.ScreenManager;
+import arcade.handler.GameLoop;
+import arcade.level.ChaosLevel;
+import arcade.level.Level;
+import arcade.level.SurvivalLevel;
+import arcade.level.breakout.BreakoutLevel;
+import arcade.sim.GameConfig;
+import arcade.sim.GameRun;
+import arcade.sim.LevelPack;
+import arcade.sim.PaddleBot;
+import arcade.sim.SaveSlots;
+import arcade.sprite.Paddle;
+import arcade.trace.TraceRecorder;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+/**
+ * Checks that a steady-state frame allocates nothing, so a long session never stops for garbage collection mid-game.
+ * Plays each game mode in a real window, on a headless JavaFX platform unless told otherwise: the ScreenManager,
+ * Level, and GameLoop are the game's own, and every frame is a GameLoop frame run from a pulse of the JavaFX thread,
+ * with input, updates, rewind capture, frame stats, trace spans, and all drawing into the CanvasLayers,
+ * HUD text included. A Paddle bot plays, so games last as they would for a decent player.
+ * Each mode is played with dirty rectangles off and on, and after the JIT has warmed up, the bytes the JavaFX thread
+ * allocates during each frame are measured, one frame a pulse as in play. JavaFX's spare canvas buffers are made
+ * up front, as a long session would have them; that reaches into JavaFX's internal GrowableDataBuffer, as of
+ * JavaFX 17.0.10, and the check fails at once, saying so, if a JavaFX version no longer has it. Only the first frame of a Level, which draws everything, and the frame
+ * where it ends, which shows the end text, may allocate; any other frame that allocates is a regression,
+ * and the check exits with status 1. The benchmark build runs it as its test, so such a frame fails the build.
+ * Usage: FrameAllocationCheck [measured frames per run]
+ *   mvn -f bench/pom.xml test
+ *   java -cp bench/target/benchmarks.jar:<JavaFX and Monocle jars> arcade.bench.FrameAllocationCheck
+ * @author Kevin
+ */
+public class FrameAllocationCheck
+{
+    public static final long FRAME_NANOS = 1_000_000_000L / 60; // a 60 Hz display: two ticks most frames
+    public static final int WARMUP_FRAMES = 40_000;
+    public static final int WARMUP_FRAMES_PER_PULSE = 50;
+    public static final int SETTLE_FRAMES = 300; // the last warmup frames, one a pulse, so the renderer has caught up
+    public static final int MAX_REPORTED = 10; // allocating frames printed per run
+    public static final int TIMEOUT_MINUTES = 30; // for every run together, so a stuck run fails instead of hanging
+    // with save states on, the rewind buffer is filled every tick, and no high scores are recorded
+    // the smaller window size offered, which draws quicker in software
+    public static final GameConfig CONFIG = GameConfig.forSize(800, 600, true);
+    
+    private static final int SPARE_BUFFERS = 16;
+    private static final int SPARE_BUFFER_VALUES = 16 << 10; // bytes of drawing commands
+    private static final int SPARE_BUFFER_OBJECTS = 256;
+    private static final String BUFFER_CLASS = "com.sun.javafx.sg.prism.GrowableDataBuffer"; // internal, as of JavaFX 17.0.10
+    private static final List<Object> spareBuffers = new ArrayList<>();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    // one game mode, as its menu button starts it
+    private interface Mode
+    {
+        // starts a new game and returns its first Level
+        public Level start(ScreenManager screens);
+    }
+    
+    public static void main(String[] args) throws Exception
+    {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 1800;
+        // a window drawn in software into memory, so no display or graphics card is needed
+        setDefault("glass.platform", "Monocle");
+        setDefault("monocle.platform", "Headless");
+        setDefault("headless.geometry", "1600x1200");
+        setDefault("prism.order", "sw");
+        LevelPack pack = LevelPack.builtIn();
+        File traceFile = File.createTempFile("arcade-trace", ".json");
+        traceFile.deleteOnExit();
+        TraceRecorder trace = new TraceRecorder(traceFile); // spans are recorded too, as with --trace
+        
+        Mode breakout = screens ->
+        {
+            screens.startGame(GameRun.BREAKOUT, CONFIG, null);
+            return new BreakoutLevel(screens, pack, 0, BreakoutLevel.DEFAULT_LIVES);
+        };
+        Mode survival = screens ->
+        {
+            screens.startGame(GameRun.SURVIVAL, CONFIG, null);
+            return new SurvivalLevel(screens);
+        };
+        Mode chaos = screens ->
+        {
+            screens.startGame(GameRun.CHAOS, CONFIG, null);
+            return new ChaosLevel(screens);
+        };
+        
+        CompletableFuture<Boolean> passed = new CompletableFuture<>();
+        boolean result = false;
+        try
+        {
+            Platform.startup(() ->
+            {
+                try
+                {
+                    stockCanvasBuffers();
+                    Stage stage = new Stage();
+                    ScreenManager screens = new ScreenManager(stage, new Pane(), 0, new SaveSlots(traceFile.getParentFile()));
+                    screens.setTrace(trace);
+                    stage.show();
+                    // one run after another, each started by the pulse that ends the last
+                    Run last = new Run("Chaos, dirty rects", chaos, true, screens, frames, null, passed);
+                    Run next = new Run("Chaos", chaos, false, screens, frames, last, passed);
+                    next = new Run("Survival, dirty rects", survival, true, screens, frames, next, passed);
+                    next = new Run("Survival", survival, false, screens, frames, next, passed);
+                    next = new Run("Breakout, dirty rects", breakout, true, screens, frames, next, passed);
+                    new Run("Breakout", breakout, false, screens, frames, next, passed).start();
+                }
+                catch (RuntimeException | Error e)
+                {
+                    passed.completeExceptionally(e);
+                }
+            });
+            boolean allSteady = passed.get(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+            trace.close();
+            Platform.exit();
+            result = allSteady;
+        }
+        catch (ExecutionException e)
+        {
+            System.out.println("Check failed:");
+            e.getCause().printStackTrace(System.out);
+        }
+        catch (TimeoutException e)
+        {
+            System.out.println("Check failed: the runs took over " + TIMEOUT_MINUTES + " minutes");
+        }
+        finally
+        {
+            // the JavaFX thread would keep the JVM running, so it always exits, passed or not;
+            // only System.exit here, since Platform.exit waits forever on a toolkit that failed to start
+            System.exit(result ? 0 : 1);
+        }
+    }
+    
+    // JavaFX canvases share spare command buffers and make another whenever no spare is big enough, in whichever
+    // frame first draws more than before; a long session has all it needs, so the check makes them up front
+    // the buffers are internal to JavaFX, so they're reached by name, and a version without them fails the check
+    private static void stockCanvasBuffers()
+    {
+        try
+        {
+            Class<?> buffers = Class.forName(BUFFER_CLASS);
+            Method getBuffer = buffers.getMethod("getBuffer", int.class, int.class);
+            Method returnBuffer = buffers.getMethod("returnBuffer", buffers);
+            for (int i = 0; i < SPARE_BUFFERS; ++i)
+                spareBuffers.add(getBuffer.invoke(null, SPARE_BUFFER_VALUES, SPARE_BUFFER_OBJECTS));
+            for (Object buffer : spareBuffers)
+                returnBuffer.invoke(null, buffer); // still held here, as the pool's references are weak
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            throw new IllegalStateException("Could not make JavaFX's spare canvas buffers: the check is tuned to "
+                                          + BUFFER_CLASS + " as of JavaFX 17.0.10, and this is JavaFX "
+                                          + System.getProperty("javafx.runtime.version"), e);
+        }
+    }
+    
+    private static void setDefault(String property, String value)
+    {
+        if (System.getProperty(property) == null)
+            System.setProperty(property, value);
+    }
+    
+    // plays one game mode a frame per pulse, as the player would: on to the next Level, or again, or back to the menu
+    private static class Run extends AnimationTimer
+    {
+        private final String name;
+        private final Mode mode;
+        private final boolean dirtyRects;
+        private final ScreenManager screens;
+        private final int frames;
+        private final Run next; // null for the last run
+        private final CompletableFuture<Boolean> passed; // completed by the last run, or the first one that fails
+        private GameLoop loop; // the one last played
+        private long now;
+        private int frame;
+        private int levels;
+        private int steady;
+        private int allocating;
+        private int reported;
+        private long worst;
+        private long edgeBytes; // allocated by the first and last frames of Levels
+        private final long overhead; // of reading the counter itself
+        private long collections; // before the measured frames
+        
+        private Run(String name, Mode mode, boolean dirtyRects, ScreenManager screens, int frames,
+                    Run next, CompletableFuture<Boolean> passed)
+        {
+            this.name = name;
+            this.mode = mode;
+            this.dirtyRects = dirtyRects;
+            this.screens = screens;
+            this.frames = frames;
+            this.next = next;
+            this.passed = passed;
+            frame = -WARMUP_FRAMES;
+            long probe = allocatedBytes();
+            overhead = allocatedBytes() - probe;
+        }
+        
+        @Override
+        public void start()
+        {
+            screens.showMenu();
+            screens.getLayers().setDirtyRects(dirtyRects);
+            super.start();
+        }
+        
+        @Override
+        public void handle(long pulse)
+        {
+            try
+            {
+                // several frames a pulse while the JIT warms up, then one, so every frame is shown as in play
+                for (int i = frame < -SETTLE_FRAMES ? WARMUP_FRAMES_PER_PULSE : 1; i > 0 && frame < frames; --i)
+                    frame();
+            }
+            catch (RuntimeException | Error e)
+            {
+                stop();
+                passed.completeExceptionally(e);
+            }
+        }
+        
+        private void frame()
+        {
+            if (frame == 0)
+                collections = collections();
+            if (screens.getLoop() != null && screens.getLoop().getLevel().isOver())
+                screens.getScene().getOnMouseClicked().handle(null); // the click after the end text
+            if (screens.getLoop() == null) // at the menu
+                screens.play(mode.start(screens));
+            boolean first = screens.getLoop() != loop;
+            loop = screens.getLoop();
+            loop.stop(); // run from here instead, to be measured
+            Level lvl = loop.getLevel();
+            
+            // the bot picks keys to hold, and presses them as the player would between frames
+            Paddle p = lvl.getSimulation().getPaddle();
+            PaddleBot.INSTANCE.control(lvl.getSimulation(), loop.getRunTicks());
+            screens.getControls().setMoveLeft(p.getMoveLeft());
+            screens.getControls().setMoveRight(p.getMoveRight());
+            
+            long before = allocatedBytes();
+            loop.handle(now);
+            long allocated = allocatedBytes() - before - overhead;
+            now += FRAME_NANOS;
+            
+            if (frame++ < 0)
+                return;
+            if (first)
+                ++levels;
+            if (first || lvl.isOver())
+                edgeBytes += allocated;
+            else
+            {
+                ++steady;
+                if (allocated > 0)
+                {
+                    ++allocating;
+                    worst = Math.max(worst, allocated);
+                    if (reported++ < MAX_REPORTED)
+                        System.out.println(name + " frame " + frame + " (tick " + loop.getTicks() + ", "
+                                         + lvl.getSimulation().getBallCount() + " balls) allocated " + allocated + " bytes");
+                }
+            }
+            if (frame == frames)
+                finish();
+        }
+        
+        private void finish()
+        {
+            stop();
+            System.out.printf("%-22s %d frames, %d steady: %d allocated, worst %d bytes; "
+                            + "first and last frames of %d Levels allocated %d bytes; %d collections%n",
+                              name, frames, steady, allocating, worst, levels, edgeBytes, collections() - collections);
+            if (allocating > 0)
+                passed.complete(false);
+            else if (next == null)
+                passed.complete(true);
+            else
+                next.start();
+        }
+    }
+    
+    // collections so far, by every collector
+    private static long collections()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            count += collector.getCollectionCount();
+        return count;
+    }
+    // bytes allocated by this thread so far
+    private static long allocatedBytes()
+    {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package arcade.bench;
+
+import arcade.sim.BreakoutLevelData;
+import arcade.sim.BreakoutSimulation;
+import arcade.sim.ChaosSimulation;
+import arcade.sim.LevelPack;
+import arcade.sim.Simulation;
+import arcade.sim.SurvivalSimulation;
+import arcade.sim.World;
+import arcade.sprite.Ball;
+import arcade.sprite.Paddle;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for one full tick of game logic in each game mode.
+ * The Paddle follows the first Ball so games last as they would for a decent player.
+ * Run with the gc profiler, so allocation shows up next to throughput:
+ *   mvn -f bench/pom.xml package
+ *   java -jar bench/target/benchmarks.jar LevelBenchmarks -prof gc
+ * Adding -bm sample -tu us gives the spread of update times instead; UpdateProfile also shows collision tests per tick.
+ * @author Kevin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmarks
+{
+    public static final double FRAME_TIME = 1/120.0;
+    
+    @State(Scope.Thread)
+    public static class Breakout
+    {
+        @Param({"level1", "level2", "level3", "level4", "level5"})
+        public String level;
+        private World world;
+        private BreakoutLevelData data;
+        private BreakoutSimulation sim;
+        private long frame;
+        
+        @Setup
+        public void setUp() throws IOException
+        {
+            world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+            data = LevelPack.builtIn().getLevel(level);
+            sim = data.createSimulation(world, 0, 3);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Survival
+    {
+        @Param({"10", "100", "1000"})
+        public int balls;
+        private SplittableRandom random;
+        private SurvivalSimulation sim;
+        private long frame;
+        
+        @Setup
+        public void setUp()
+        {
+            random = new SplittableRandom(balls);
+            sim = new SurvivalSimulation(new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT), random.split());
+            fill();
+        }
+        // starts a new game in place, reusing the Balls, so every tick is played with the same number of them
+        private void restart()
+        {
+            sim.reset(random.split());
+            fill();
+            frame = 0;
+        }
+        private void fill()
+        {
+            while (sim.getBallCount() < balls)
+                sim.addBall();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Chaos
+    {
+        @Param({"100", "1000"})
+        public int balls;
+        private World world;
+        private SplittableRandom random;
+        private ChaosSimulation sim;
+        private long frame;
+        
+        @Setup
+        public void setUp()
+        {
+            world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+            random = new SplittableRandom(balls);
+            sim = new ChaosSimulation(world, random.split(), balls);
+        }
+    }
+    
+    @Benchmark
+    public int breakoutUpdate(Breakout s)
+    {
+        if (s.sim.isOver()) // start over once the level ends, which is rare
+        {
+            s.sim = s.data.createSimulation(s.world, 0, 3);
+            s.frame = 0;
+        }
+        return tick(s.sim, s.sim.getBall(), s.frame++);
+    }
+    @Benchmark
+    public int survivalUpdate(Survival s)
+    {
+        // start over once a Ball drops or a new one has joined, so nearly every tick plays the measured number of Balls
+        if (s.sim.isOver() || s.sim.getBallCount() > s.balls)
+            s.restart();
+        return tick(s.sim, s.sim.getBall(0), s.frame++);
+    }
+    @Benchmark
+    public int chaosUpdate(Chaos s)
+    {
+        if (s.sim.isOver()) // start over once the time limit is reached
+        {
+            s.sim = new ChaosSimulation(s.world, s.random.split(), s.balls);
+            s.frame = 0;
+        }
+        return tick(s.sim, s.sim.getBall(0), s.frame++);
+    }
+    
+    // moves the Paddle under the given Ball, then runs one tick
+    static int tick(Simulation sim, Ball b, long frame)
+    {
+        Paddle p = sim.getPaddle();
+        p.setX(b.getX() - p.getWidth()/2);
+        sim.update(frame * FRAME_TIME);
+        return sim.getDrops();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package arcade.bench;
+
+import arcade.sim.BreakoutSimulation;
+import arcade.sim.LevelPack;
+import arcade.sim.World;
+import arcade.sprite.Ball;
+import arcade.sprite.Block;
+import arcade.sprite.BlockGrid;
+import arcade.sprite.Paddle;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the per-frame collision and movement methods of Ball.
+ * Run with the gc profiler, so allocation shows up next to throughput:
+ *   mvn -f bench/pom.xml package
+ *   java -jar bench/target/benchmarks.jar PhysicsBenchmarks -prof gc
+ * @author Kevin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicsBenchmarks
+{
+    private World world;
+    private Ball wallBall;
+    private Paddle p;
+    private Ball paddleBall;
+    private Ball trigBall;
+    private int angle;
+    private Ball blockBall;
+    private ArrayList<Block> blocks;
+    private BlockGrid grid;
+    private Ball manyBall;
+    private ArrayList<Block> many;
+    private BlockGrid manyGrid;
+    
+    @Setup
+    public void setUp() throws IOException
+    {
+        world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        wallBall = new Ball(world, world.getConfig().getBallRadius(), 0, 0, world.getHeight()/180.0, 300);
+        p = new Paddle(world);
+        paddleBall = new Ball(world, world.getConfig().getBallRadius(), 0, 0, world.getHeight()/180.0, 60);
+        trigBall = new Ball(world, world.getConfig().getBallRadius(), 0, 0, world.getHeight()/180.0, 0);
+        
+        // block checks on a frame where nothing is hit, which is almost every frame
+        BreakoutSimulation lvl1 = LevelPack.builtIn().getFirstLevel().createSimulation(world, 0, 3);
+        blockBall = lvl1.getBall();
+        blocks = lvl1.getBlocks();
+        grid = new BlockGrid(blocks, world.getWidth(), world.getHeight());
+        
+        // large custom layout: 60 x 80 small blocks
+        many = new ArrayList<>();
+        double w = world.getWidth()/60;
+        double h = world.getHeight()/2/80;
+        for (int i = 0; i < 80; ++i)
+            for (int j = 0; j < 60; ++j)
+                many.add(new Block(j*w + 1, i*h + 1, w - 2, h - 2));
+        manyBall = new Ball(world, world.getConfig().getBallRadius(), world.getWidth()/2, 3*world.getHeight()/4, world.getHeight()/180.0, 300);
+        manyGrid = new BlockGrid(many, world.getWidth(), world.getHeight());
+    }
+    
+    // Ball bouncing between the left and right walls, so every call is a hit
+    @Benchmark
+    public boolean hitsWall()
+    {
+        wallBall.setX(wallBall.getDeltaX() > 0 ? world.getWidth() - 2*wallBall.getRadius() - 1 : 1);
+        wallBall.setY(world.getHeight()/2);
+        return wallBall.hitsWall();
+    }
+    
+    // Ball bouncing off the middle of the Paddle, pointed back down before each hit
+    @Benchmark
+    public boolean hitsPaddle()
+    {
+        paddleBall.setX(p.getX() + p.getWidth()/2);
+        paddleBall.setY(p.getY() - 2*paddleBall.getRadius() - 1);
+        paddleBall.setAngle(60);
+        return paddleBall.hitsPaddle(p);
+    }
+    
+    // trig done on every angle or speed change
+    @Benchmark
+    public double setDeltaXY()
+    {
+        trigBall.setAngle(angle++ % 360);
+        return trigBall.getDeltaX();
+    }
+    
+    @Benchmark
+    public boolean hitsBlockListLevel1()
+    {
+        return blockBall.hitsBlock(blocks);
+    }
+    @Benchmark
+    public boolean hitsBlockGridLevel1()
+    {
+        return blockBall.hitsBlock(grid);
+    }
+    @Benchmark
+    public boolean hitsBlockList4800()
+    {
+        return manyBall.hitsBlock(many);
+    }
+    @Benchmark
+    public boolean hitsBlockGrid4800()
+    {
+        return manyBall.hitsBlock(manyGrid);
+    }
+}
\ No newline at end of file
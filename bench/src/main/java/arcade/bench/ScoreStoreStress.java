@@ -0,0 +1,98 @@
+package arcade.bench;
+
+import arcade.score.ScoreEntry;
+import arcade.score.ScoreRecord;
+import arcade.score.ScoreStore;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Stress test for several processes recording scores into the same ScoreStore at once,
+ * as happens when more than one Arcade runs in the same directory.
+ * Starts the given number of JVMs, each recording its own unique scores one at a time,
+ * then opens the store and checks that every score is there exactly once with a unique sequence number.
+ * Usage: ScoreStoreStress [processes] [scores per process]
+ * @author Kevin
+ */
+public class ScoreStoreStress
+{
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length > 0 && args[0].equals("child"))
+        {
+            child(new File(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            return;
+        }
+        int processes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int scores = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+        int total = processes * scores;
+        File dir = Files.createTempDirectory("arcade-stress").toFile();
+        File textFile = new File(dir, "Stress High Scores.txt");
+
+        // every score is kept, so a lost update shows up as a missing score
+        new ScoreStore(textFile, total).close();
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ArrayList<Process> children = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < processes; ++i)
+            children.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ScoreStoreStress.class.getName(),
+                                            "child", textFile.getPath(), "" + total, "" + i, "" + scores).inheritIO().start());
+        for (Process p : children)
+            if (p.waitFor() != 0)
+                throw new IllegalStateException("Child process failed");
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        ScoreStore store = new ScoreStore(textFile, total);
+        List<ScoreEntry> entries = store.getTopScores();
+        store.close();
+        HashSet<Integer> seenScores = new HashSet<>();
+        HashSet<Long> seenSeqs = new HashSet<>();
+        int duplicateSeqs = 0;
+        for (ScoreEntry e : entries)
+            if (!e.isPlaceholder())
+            {
+                seenScores.add(e.getScore());
+                if (!seenSeqs.add(e.getSeq()))
+                    ++duplicateSeqs;
+            }
+        int lost = 0;
+        for (int i = 0; i < processes; ++i)
+            for (int j = 0; j < scores; ++j)
+                if (!seenScores.contains(score(i, j)))
+                    ++lost;
+
+        // includes JVM startup, so the real rate under load is somewhat higher
+        System.out.printf("%d processes x %d scores: %.2f s, %.1f submissions/s%n", processes, scores, seconds, total / seconds);
+        System.out.printf("lost updates: %d, duplicate sequence numbers: %d%n", lost, duplicateSeqs);
+        for (File f : dir.listFiles())
+            f.setWritable(true);
+        for (File f : dir.listFiles())
+            f.delete();
+        dir.delete();
+        if (lost > 0 || duplicateSeqs > 0)
+            System.exit(1);
+    }
+
+    private static void child(File textFile, int capacity, int id, int scores) throws IOException
+    {
+        ScoreStore store = new ScoreStore(textFile, capacity);
+        for (int j = 0; j < scores; ++j)
+        {
+            ArrayList<ScoreRecord> batch = new ArrayList<>(1);
+            batch.add(new ScoreRecord(store, score(id, j), 1 + j % 5, false));
+            store.recordAll(batch);
+        }
+        store.close();
+    }
+
+    // unique for every process and submission, and never 0 so it is never mistaken for a placeholder
+    private static int score(int id, int j)
+    {
+        return id * 1_000_000 + j + 1;
+    }
+}
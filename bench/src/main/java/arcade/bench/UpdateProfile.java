@@ -0,0 +1,57 @@
+package arcade.bench;
+
+import arcade.sim.BreakoutSimulation;
+import arcade.sim.ChaosSimulation;
+import arcade.sim.FrameStats;
+import arcade.sim.LevelPack;
+import arcade.sim.Simulation;
+import arcade.sim.SurvivalSimulation;
+import arcade.sim.World;
+import arcade.sprite.Ball;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Profiles each game mode tick by tick into FrameStats, as the GameLoop does, to show the spread
+ * of update times and the collision tests per tick that LevelBenchmarks' throughput figures leave out.
+ *   java -cp bench/target/benchmarks.jar arcade.bench.UpdateProfile
+ * @author Kevin
+ */
+public class UpdateProfile
+{
+    public static final int PROFILE_TICKS = 20_000;
+    
+    public static void main(String[] args) throws IOException
+    {
+        World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        LevelPack pack = LevelPack.builtIn();
+        BreakoutSimulation breakout = pack.getFirstLevel().createSimulation(world, 0, 3);
+        profile("BreakoutLevel " + pack.getFirstLevelName(), breakout, breakout.getBall());
+        SurvivalSimulation survival = new SurvivalSimulation(world, new SplittableRandom(1000));
+        while (survival.getBallCount() < 1000)
+            survival.addBall();
+        profile("SurvivalLevel, 1000 balls", survival, survival.getBall(0));
+        ChaosSimulation chaos = new ChaosSimulation(world, new SplittableRandom(1000), 1000);
+        profile("ChaosLevel, 1000 balls", chaos, chaos.getBall(0));
+    }
+    
+    // times single updates the way the GameLoop does, printing p50/p99/max and the mean collision tests per tick
+    private static void profile(String name, Simulation sim, Ball b)
+    {
+        FrameStats stats = new FrameStats();
+        long tests = 0;
+        int ticks = 0;
+        for (; ticks < PROFILE_TICKS && !sim.isOver(); ++ticks)
+        {
+            long start = System.nanoTime();
+            LevelBenchmarks.tick(sim, b, ticks);
+            long end = System.nanoTime();
+            stats.getUpdate().record(end - start);
+            stats.frame(end, 1, sim);
+            tests += stats.getCollisionTests();
+        }
+        System.out.println(String.format(Locale.ROOT, "%-45s update p50/p99/max %s, %.1f collision tests/tick",
+                                         name, stats.getUpdate().summary(), (double) tests / Math.max(1, ticks)));
+    }
+}
\ No newline at end of file
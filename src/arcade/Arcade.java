@@ -1,44 +1,53 @@
 package arcade;
 
-import arcade.handler.BallAdderLoop;
-import arcade.handler.GameLoop;
 import arcade.level.ChaosLevel;
+import arcade.level.Level;
 import arcade.level.SurvivalLevel;
 import arcade.level.breakout.BreakoutLevel;
-import arcade.level.breakout.BreakoutLevel1;
-import arcade.sprite.Ball;
-import arcade.sprite.Block;
-import arcade.sprite.Paddle;
+import arcade.score.Leaderboard;
+import arcade.score.ScoreStore;
+import arcade.score.ScoreVerifier;
+import arcade.score.ScoreWriter;
+import arcade.sim.BreakoutSimulation;
+import arcade.sim.ChaosSimulation;
+import arcade.sim.FrameStats;
+import arcade.sim.GameConfig;
+import arcade.sim.GameRun;
+import arcade.sim.HeadlessGame;
+import arcade.sim.InputLog;
+import arcade.sim.LevelPack;
+import arcade.sim.ReplayArchive;
+import arcade.sim.SaveSlots;
+import arcade.sim.SurvivalSimulation;
+import arcade.sim.World;
+import arcade.trace.AudioLoadEvent;
+import arcade.trace.TraceRecorder;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Random;
 import java.util.Scanner;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
-import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.TextArea;
-import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
@@ -59,37 +68,44 @@ public class Arcade extends Application
         SurvivalLevel.GAME_MODE
     };
     public static final File[] HIGH_SCORE_FILES = new File[HIGH_SCORE_GAME_MODES.length];
+    public static final ScoreStore[] HIGH_SCORE_STORES = new ScoreStore[HIGH_SCORE_GAME_MODES.length];
+    public static final ScoreWriter SCORE_WRITER = new ScoreWriter(); // records scores off the game thread
+    // replays every game before its score is written; one thread is left for the game itself
+    public static final ScoreVerifier SCORE_VERIFIER =
+        new ScoreVerifier(SCORE_WRITER, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
     
     // text files; private because only accessed by main class
     private String HowToPlay;
     private final ArrayList<String> HighScoresTemplate = new ArrayList<>(); // array to print lines to text files properly
+    private Leaderboard leaderboard; // high scores text, kept up to date in memory
+    private LevelPack breakoutLevels; // built-in unless a pack is given with --levels=<directory or zip file>
+    private ScreenManager screens; // the menu, games, and panels all share the one window
+    private final SaveSlots saveSlots = new SaveSlots(new File(".")); // e.g. "Breakout Save 1.state"
+    private TraceRecorder trace = TraceRecorder.OFF; // frame timelines, written with --trace=<file>
+    private GameConfig config = GameConfig.DEFAULT; // replaced when options change; each game keeps the one it started with
+    // finished games are played through again to build their replay archives, off the JavaFX thread
+    private final ExecutorService replaySaver = Executors.newSingleThreadExecutor(r ->
+    {
+        Thread thread = new Thread(r, "Replay saver");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     // default colors and dimensions
     public static final Color DEFAULT_BACKGROUND_COLOR = Color.BLACK;
     public static final Color DEFAULT_TEXT_COLOR = Color.WHITE;
-    public static final int DEFAULT_STAGE_WIDTH = 1200;
-    public static final int DEFAULT_STAGE_HEIGHT = 900;
-    
-    // non-final variables so they can be changed, i.e. in Chaos mode
-    // static variables so they can be accessed from within levels when drawing
-    public static Color BACKGROUND_COLOR = DEFAULT_BACKGROUND_COLOR;
-    public static Color TEXT_COLOR = DEFAULT_TEXT_COLOR;
-    public static int STAGE_WIDTH = DEFAULT_STAGE_WIDTH;
-    public static int STAGE_HEIGHT = DEFAULT_STAGE_HEIGHT;
+    public static final int DEFAULT_STAGE_WIDTH = World.DEFAULT_WIDTH;
+    public static final int DEFAULT_STAGE_HEIGHT = World.DEFAULT_HEIGHT;
     
     // the approximate amount of space text in the top
     // left corner of the game screen takes up on either side
-    public static final int VERT_TEXT_SPACE = 60;
-    public static final int HORIZ_TEXT_SPACE = 200;
-    
-    // gameplay related variables
-    public static boolean SAVE_STATES = false;
+    public static final int VERT_TEXT_SPACE = World.VERT_TEXT_SPACE;
+    public static final int HORIZ_TEXT_SPACE = World.HORIZ_TEXT_SPACE;
     
     @Override
     public void start(Stage primaryStage) throws IOException
     {
-        // set up stage
-        primaryStage.setTitle("Main Menu");
+        // set up menu
         StackPane root = new StackPane();
         Group group = new Group();
         VBox box = new VBox();
@@ -99,21 +115,82 @@ public class Arcade extends Application
         // create text/buttons
         Text welcome = new Text("Welcome to Kevin's arcade! Choose your game!");
         box.getChildren().add(welcome);
-        addButtons(primaryStage, box);
+        addButtons(box);
         
         // read in all files once
         initializeFiles();
+        String levels = getParameters().getNamed().get("levels");
+        breakoutLevels = levels == null ? LevelPack.builtIn() : LevelPack.open(new File(levels));
         
-        // set up and show scene
+        // scores still waiting to be written are written before the program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(Arcade::closeHighScores));
+        
+        // set up and show the window, starting at the menu
         group.getChildren().add(box);
         root.getChildren().add(group);
-        Scene scene = new Scene(root, 300, 300);
-        primaryStage.setScene(scene);
-        primaryStage.setResizable(false);
+        root.setPrefSize(ScreenManager.PANEL_SIZE, ScreenManager.PANEL_SIZE);
+        // every game's seed comes from one seed, random unless given with --seed=<number>
+        String seed = getParameters().getNamed().get("seed");
+        screens = new ScreenManager(primaryStage, root, seed == null ? new SplittableRandom().nextLong() : Long.parseLong(seed),
+                                    saveSlots);
+        screens.setOnRecorded(this::saveReplay);
+        // only repaint what changes each frame, for slow graphics hardware, with --dirty-rects=true
+        screens.getLayers().setDirtyRects(Boolean.parseBoolean(getParameters().getNamed().get("dirty-rects")));
+        // trace every frame into a file that can be opened in chrome://tracing or ui.perfetto.dev
+        String traceFile = getParameters().getNamed().get("trace");
+        if (traceFile != null)
+        {
+            trace = new TraceRecorder(new File(traceFile));
+            screens.setTrace(trace);
+        }
+        screens.showMenu();
         primaryStage.show();
+        
+        // watch a recorded game first if one is given with --replay=<file>
+        String replay = getParameters().getNamed().get("replay");
+        if (replay != null)
+            watchReplay(ReplayArchive.open(new File(replay)));
+    }
+    
+    @Override
+    public void stop() throws IOException
+    {
+        replaySaver.shutdown(); // the last game's replay is still saved
+        try
+        {
+            replaySaver.awaitTermination(ScoreWriter.CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        saveSlots.close();
+        trace.close();
+        leaderboard.close();
+        closeHighScores();
+        breakoutLevels.close(); // only once waiting Breakout scores have been checked
+    }
+    // checks and writes any waiting scores, then compacts each store's journal
+    private static void closeHighScores()
+    {
+        SCORE_VERIFIER.close();
+        SCORE_WRITER.close();
+        for (ScoreStore store : HIGH_SCORE_STORES)
+        {
+            try
+            {
+                if (store != null)
+                    store.close();
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not close high scores in " + store.getTextFile() + ": " + e);
+            }
+        }
     }
+    
     // adds all necessary buttons to main menu, keeping start method cleaner
-    private void addButtons(Stage primaryStage, VBox box)
+    private void addButtons(VBox box)
     {
         Button breakout = new Button("Play " + BreakoutLevel.GAME_MODE);
         breakout.setOnAction(new EventHandler<ActionEvent>()
@@ -121,9 +198,7 @@ public class Arcade extends Application
             @Override
             public void handle(ActionEvent event)
             {
-                primaryStage.close();
                 playBreakout();
-                primaryStage.show();
             }
         });
         box.getChildren().add(breakout);
@@ -133,9 +208,7 @@ public class Arcade extends Application
             @Override
             public void handle(ActionEvent event)
             {
-                primaryStage.close();
                 playSurvival();
-                primaryStage.show();
             }
         });
         box.getChildren().add(survival);
@@ -145,9 +218,7 @@ public class Arcade extends Application
             @Override
             public void handle(ActionEvent event)
             {
-                primaryStage.close();
                 playChaos();
-                primaryStage.show();
             }
         });
         box.getChildren().add(chaos);
@@ -157,9 +228,7 @@ public class Arcade extends Application
             @Override
             public void handle(ActionEvent event)
             {
-                primaryStage.close();
                 showHighScores();
-                primaryStage.show();
             }
         });
         box.getChildren().add(highScores);
@@ -169,9 +238,7 @@ public class Arcade extends Application
             @Override
             public void handle(ActionEvent event)
             {
-                primaryStage.close();
                 showHowToPlay();
-                primaryStage.show();
             }
         });
         box.getChildren().add(howToPlay);
@@ -181,9 +248,7 @@ public class Arcade extends Application
             @Override
             public void handle(ActionEvent event)
             {
-                primaryStage.close();
                 showOptions();
-                primaryStage.show();
             }
         });
         box.getChildren().add(options);
@@ -203,9 +268,14 @@ public class Arcade extends Application
         while (rd.hasNextLine())
             HighScoresTemplate.add(rd.nextLine());
         
-        // high score files
+        // high score files and the stores that keep them
         for (int i = 0; i < HIGH_SCORE_FILES.length; ++i)
+        {
             HIGH_SCORE_FILES[i] = getHighScores(HIGH_SCORE_GAME_MODES[i]);
+            HIGH_SCORE_STORES[i] = new ScoreStore(HIGH_SCORE_FILES[i], HighScoresTemplate.size());
+        }
+        leaderboard = new Leaderboard(HIGH_SCORE_GAME_MODES, HIGH_SCORE_STORES);
+        leaderboard.startWatching();
     }
     // retrieves high score file for given game mode
     // called in main class to initialize all files at once
@@ -219,223 +289,120 @@ public class Arcade extends Application
             PrintStream ps = new PrintStream(f);
             for (String line : HighScoresTemplate)
                 ps.println(line);
+            ps.close();
         }
         
-        // uneditable except when recording scores
-        f.setReadOnly();
-        
         return f;
     }
     
-    // using given stage, initializes drawing canvas, appropriate Level object,
-    // and game loop to start playing Breakout game mode
+    // starts the first level of the Breakout game mode in the shared window
+    // further levels are started by the ScreenManager when the player continues
     public void playBreakout()
     {
-        Stage stage = new Stage();
-        stage.setWidth(STAGE_WIDTH);
-        stage.setHeight(STAGE_HEIGHT);
-        stage.setResizable(false);
-        Group root = new Group();
-        Canvas canvas = new Canvas(stage.getWidth(), stage.getHeight());
-        root.getChildren().add(canvas);
-        stage.setScene(new Scene(root));
-        BreakoutLevel lvl = new BreakoutLevel1(stage, canvas, 0, BreakoutLevel.DEFAULT_LIVES);
+        screens.startGame(GameRun.BREAKOUT, config, null);
+        screens.play(new BreakoutLevel(screens, breakoutLevels, 0, BreakoutLevel.DEFAULT_LIVES));
                             // first level, 0 start score, 3 default start lives
-        do // level loop
-        {
-            Timeline timeline = new Timeline();
-            timeline.setCycleCount(Timeline.INDEFINITE);
-            final double timeStart = System.currentTimeMillis(); // to keep track of time spent in game
-            GameLoop loop = new GameLoop(lvl, timeStart, timeline);
-            KeyFrame frames = new KeyFrame(Duration.seconds(1/120.0), loop);
-            
-            timeline.getKeyFrames().add(frames);
-            timeline.play();
-            stage.showAndWait(); // showAndWait() keeps code execution from passing this line until window is closed
-            timeline.stop(); // end timeline if user closes window without finishing Level
-            
-            // if player chooses to keep playing, load next level before restarting level loop
-            if (GameLoop.continueGame())
-                lvl = lvl.loadNextLevel();
-        }
-        while (GameLoop.continueGame());
     }
     
     // Survival game mode
     public void playSurvival()
     {
-        Stage stage = new Stage();
-        stage.setWidth(STAGE_WIDTH);
-        stage.setHeight(STAGE_HEIGHT);
-        stage.setResizable(false);
-        Group root = new Group();
-        Canvas canvas = new Canvas(stage.getWidth(), stage.getHeight());
-        root.getChildren().add(canvas);
-        stage.setScene(new Scene(root));
-        SurvivalLevel lvl = new SurvivalLevel(stage, canvas);
-        
-        do
+        // music, kept playing through every restart until the player leaves the game
+        Clip clip;
+        AudioLoadEvent event = new AudioLoadEvent("Survival.wav");
+        event.begin();
+        try
         {
-            // music
-            Clip clip;
-            try
-            {
-                clip = AudioSystem.getClip();
-                clip.open(AudioSystem.getAudioInputStream(Arcade.class.getResource("files/Survival.wav")));
-                clip.start();
-                clip.loop(Clip.LOOP_CONTINUOUSLY);
-            }
-            catch (LineUnavailableException | UnsupportedAudioFileException | IOException e)
-            {
-                clip = null;
-            }
-            
-            Timeline timeline = new Timeline();
-            timeline.setCycleCount(Timeline.INDEFINITE);
-            final double timeStart = System.currentTimeMillis();
-            GameLoop loop = new GameLoop(lvl, timeStart, timeline);
-            KeyFrame frames = new KeyFrame(Duration.seconds(1/120.0), loop);
-            
-            // this timeline adds balls to the game every ten seconds
-            // needs a new class because inner classes cannot interact with non-final variables
-            Timeline ballAdder = new Timeline();
-            ballAdder.setCycleCount(Timeline.INDEFINITE);
-            BallAdderLoop ballLoop = new BallAdderLoop(lvl, ballAdder);
-            KeyFrame addBallFrames = new KeyFrame(Duration.seconds(10), ballLoop);
-            
-            // plays both timelines side by side
-            timeline.getKeyFrames().add(frames);
-            ballAdder.getKeyFrames().add(addBallFrames);
-            timeline.play();
-            ballAdder.play();
-            stage.showAndWait();
-            if (clip != null)
-                clip.stop();
-            timeline.stop();
-            ballAdder.stop();
-            
-            if (GameLoop.continueGame())
-                lvl = lvl.loadNextLevel();
+            clip = AudioSystem.getClip();
+            clip.open(AudioSystem.getAudioInputStream(Arcade.class.getResource("files/Survival.wav")));
+            clip.start();
+            clip.loop(Clip.LOOP_CONTINUOUSLY);
         }
-        while (GameLoop.continueGame());
+        catch (LineUnavailableException | UnsupportedAudioFileException | IOException e)
+        {
+            clip = null;
+        }
+        event.setLoaded(clip != null);
+        event.setCounts(FrameStats.LIVE);
+        event.commit();
+        Clip music = clip;
+        screens.startGame(GameRun.SURVIVAL, config, () ->
+        {
+            if (music != null)
+                music.stop();
+        });
+        
+        // balls are added every ten seconds by the Level itself
+        screens.play(new SurvivalLevel(screens));
     }
     
     // Chaos game mode
     public void playChaos()
     {
-        // stores background colors
-        Color bcTemp = BACKGROUND_COLOR;
-        Color tcTemp = TEXT_COLOR;
+        // the Level keeps its changing colors to itself, so nothing needs restoring afterwards
+        screens.startGame(GameRun.CHAOS, config, null);
         
-        Stage stage = new Stage();
-        stage.setWidth(STAGE_WIDTH);
-        stage.setHeight(STAGE_HEIGHT);
-        stage.setResizable(false);
-        Group root = new Group();
-        Canvas canvas = new Canvas(stage.getWidth(), stage.getHeight());
-        root.getChildren().add(canvas);
-        stage.setScene(new Scene(root));
-        ChaosLevel lvl = new ChaosLevel(stage, canvas);
-        
-        do
+        // the Level ends itself after 30 seconds of game time and changes
+        // the background color every third of a second
+        screens.play(new ChaosLevel(screens));
+    }
+    
+    // plays a recorded game at normal speed, without recording scores
+    public void watchReplay(ReplayArchive archive) throws IOException
+    {
+        screens.startReplay(archive, breakoutLevels, this::levelFor, null);
+    }
+    // the Level showing a replayed game, continuing from wherever it was restored
+    private Level levelFor(HeadlessGame game)
+    {
+        switch (game.getMode())
         {
-            Timeline timeline = new Timeline();
-            timeline.setCycleCount(3600); // for 30 seconds at 120 fps
-            final double timeStart = System.currentTimeMillis();
-            GameLoop loop = new GameLoop(lvl, timeStart, timeline);
-            KeyFrame frames = new KeyFrame(Duration.seconds(1/120.0), loop);
-            
-            // this timeline changes the background color every third of a second
-            // does not need a new class like BallAdderLoop because it only interacts with static variables
-            Timeline colorChanger = new Timeline();
-            colorChanger.setCycleCount(90); // for 30 seconds at 3 fps
-            KeyFrame changeColorFrames = new KeyFrame(
-                Duration.seconds(1/3.0),
-                new EventHandler<ActionEvent>()
-                {
-                    final Random r = new Random();
-                    
-                    @Override
-                    public void handle(ActionEvent event)
-                    {
-                        BACKGROUND_COLOR = Color.color(r.nextDouble(), r.nextDouble(), r.nextDouble());
-                        TEXT_COLOR = BACKGROUND_COLOR.invert();
-                    }
-                });
-            
-            // plays both timelines side by side
-            timeline.getKeyFrames().add(frames);
-            colorChanger.getKeyFrames().add(changeColorFrames);
-            timeline.play();
-            colorChanger.play();
-            stage.showAndWait();
-            timeline.stop();
-            colorChanger.stop();
-            
-            if (GameLoop.continueGame())
-                lvl = lvl.loadNextLevel();
+            case GameRun.BREAKOUT: return new BreakoutLevel(screens, breakoutLevels, game.getLevelData(), (BreakoutSimulation) game.getSimulation());
+            case GameRun.SURVIVAL: return new SurvivalLevel(screens, (SurvivalSimulation) game.getSimulation());
+            case GameRun.CHAOS:    return new ChaosLevel(screens, (ChaosSimulation) game.getSimulation());
+            default: throw new IllegalArgumentException("Unknown game mode " + game.getMode());
         }
-        while (GameLoop.continueGame());
-        
-        // restores background colors
-        BACKGROUND_COLOR = bcTemp;
-        TEXT_COLOR = tcTemp;
     }
     
-    // prints scores for every supported game mode
-    public void showHighScores()
+    // keeps the last finished game of each mode, e.g. "Survival Last Game.replay", to be watched with --replay
+    private void saveReplay(InputLog log)
     {
-        Stage stage = new Stage();
-        stage.setTitle("High Scores");
-        stage.setResizable(false);
-        HBox box = new HBox();
-        StringBuilder txt = new StringBuilder();
-        try
+        String mode = log.getMode();
+        File f = new File(Character.toUpperCase(mode.charAt(0)) + mode.substring(1) + " Last Game.replay");
+        replaySaver.execute(() ->
         {
-            for (int i = 0; i < HIGH_SCORE_FILES.length; ++i)
+            try
             {
-                txt.append(HIGH_SCORE_GAME_MODES[i]).append('\n');
-                File f = HIGH_SCORE_FILES[i];
-                Scanner rd = new Scanner(f);
-                while (rd.hasNextLine())
-                    txt.append(rd.nextLine()).append('\n');
-                txt.append('\n'); // line separator between game modes
+                ReplayArchive.write(f, log, breakoutLevels);
             }
-        }
-        catch (FileNotFoundException e)
-        {
-        }
-        TextArea info = new TextArea(txt.toString());
+            catch (IOException e)
+            {
+                System.err.println("Could not save replay to " + f + ": " + e);
+            }
+        });
+    }
+    
+    // prints scores for every supported game mode, using the cached leaderboard
+    public void showHighScores()
+    {
+        TextArea info = new TextArea(leaderboard.getText()); // already in memory, no files read
         info.setEditable(false);
         info.setWrapText(true);
-        box.getChildren().add(info);
-        Scene scene = new Scene(box, 300, 300);
-        stage.setScene(scene);
-        stage.showAndWait();
+        screens.showPanel("High Scores", info);
     }
     
     // prints how to play text using stored file
     public void showHowToPlay()
     {
-        Stage stage = new Stage();
-        stage.setTitle("How to Play");
-        stage.setResizable(false);
-        HBox box = new HBox();
         TextArea info = new TextArea(HowToPlay);
         info.setEditable(false);
         info.setWrapText(true);
-        box.getChildren().add(info);
-        Scene scene = new Scene(box, 300, 300);
-        stage.setScene(scene);
-        stage.showAndWait();
+        screens.showPanel("How to Play", info);
     }
     
     // displays options menu
     public void showOptions()
     {
-        Stage stage = new Stage();
-        stage.setTitle("Options");
-        stage.setResizable(false);
         TabPane tp = new TabPane();
         
         Tab res = new Tab("Resolutions");
@@ -444,25 +411,19 @@ public class Arcade extends Application
         resBox.setAlignment(Pos.BASELINE_CENTER);
         resBox.getChildren().add(new Text("Choose a resolution:"));
         ComboBox chooseRes = new ComboBox(FXCollections.observableArrayList("1200 x 900", "800 x 600"));
-        chooseRes.getSelectionModel().select(STAGE_WIDTH + " x " + STAGE_HEIGHT);
+        chooseRes.getSelectionModel().select((int) config.getWidth() + " x " + (int) config.getHeight());
         chooseRes.setOnAction(new EventHandler<ActionEvent>()
         {
             @Override
             public void handle(ActionEvent event)
             {
                 Scanner rd = new Scanner(chooseRes.getValue().toString());
-                STAGE_WIDTH = rd.nextInt();
+                int width = rd.nextInt();
                 rd.next(); // skip " x "
-                STAGE_HEIGHT = rd.nextInt();
+                int height = rd.nextInt();
                 
-                // updating everything affected by resolution change
-                Ball.MAX_SPEED = STAGE_HEIGHT/60.0;
-                Ball.DEFAULT_SPEED_INC = STAGE_HEIGHT/1800.0;
-                Ball.DEFAULT_RADIUS = STAGE_HEIGHT/180.0;
-                Paddle.DEFAULT_WIDTH = STAGE_HEIGHT/3.0;
-                Paddle.DEFAULT_THICKNESS = STAGE_HEIGHT/90.0;
-                Paddle.DEFAULT_SPEED = STAGE_HEIGHT/90.0;
-                Block.DEFAULT_GAP = STAGE_HEIGHT/90.0;
+                // sprite sizes and speeds are scaled along with the resolution
+                config = config.withSize(width, height);
             }
         });
         resBox.getChildren().add(chooseRes);
@@ -478,13 +439,13 @@ public class Arcade extends Application
         VBox ssBox = new VBox();
         ssBox.setAlignment(Pos.BASELINE_CENTER);
         CheckBox checkSS = new CheckBox("Toggle save states (No high scores when on!)");
-        checkSS.setSelected(SAVE_STATES);
+        checkSS.setSelected(config.isSaveStates());
         checkSS.setOnAction(new EventHandler<ActionEvent>()
         {
             @Override
             public void handle(ActionEvent event)
             {
-                SAVE_STATES = !SAVE_STATES;
+                config = config.withSaveStates(checkSS.isSelected());
             }
         });
         ssBox.getChildren().add(checkSS);
@@ -492,9 +453,25 @@ public class Arcade extends Application
         saveStates.setClosable(false);
         tp.getTabs().add(saveStates);
         
-        Scene scene = new Scene(tp, 300, 300);
-        stage.setScene(scene);
-        stage.showAndWait();
+        Tab display = new Tab("Display");
+        VBox displayBox = new VBox();
+        displayBox.setAlignment(Pos.BASELINE_CENTER);
+        CheckBox checkDirty = new CheckBox("Only redraw what moves (for slow graphics cards)");
+        checkDirty.setSelected(screens.getLayers().isDirtyRects());
+        checkDirty.setOnAction(new EventHandler<ActionEvent>()
+        {
+            @Override
+            public void handle(ActionEvent event)
+            {
+                screens.getLayers().setDirtyRects(checkDirty.isSelected());
+            }
+        });
+        displayBox.getChildren().add(checkDirty);
+        display.setContent(displayBox);
+        display.setClosable(false);
+        tp.getTabs().add(display);
+        
+        screens.showPanel("Options", tp);
     }
 
     /**
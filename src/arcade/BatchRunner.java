@@ -0,0 +1,131 @@
+package arcade;
+
+import arcade.sim.GameConfig;
+import arcade.sim.GameRun;
+import arcade.sim.InputScript;
+import arcade.sim.LevelPack;
+import arcade.sim.PaddleBot;
+import arcade.sim.PaddleInput;
+import arcade.sim.ReplayArchive;
+import arcade.sim.RunResult;
+import arcade.sim.Simulation;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays many seeded games without a window and writes one line of stats per game to a JSON Lines file.
+ * Runs are spread over every core by a work-stealing pool and written as soon as each one finishes;
+ * the "run" field of each line gives its place in the batch. Used for balancing and regression checks.
+ * 
+ * Needs no JavaFX, only this class and arcade.sim/arcade.sprite:
+ *   java -cp out arcade.BatchRunner --mode=survival --runs=10000 --seed=1 --out=survival.jsonl
+ * Options, all optional:
+ *   --mode=breakout|survival|chaos     game mode, breakout by default
+ *   --runs=n                           number of games, 1000 by default
+ *   --seed=s                           seed of the first game; each later game uses the next seed
+ *   --ticks=n                          most updates per game, ten minutes of game time by default
+ *   --input=bot|script file            who moves the Paddle, the built-in bot by default (see InputScript)
+ *   --levels=directory or zip file     Breakout level pack, the built-in levels by default
+ *   --size=WxH                         play area size, 1200x900 by default
+ *   --threads=n                        worker threads, one per core by default
+ *   --out=file                         results file, results.jsonl by default
+ *   --replay=file,file,...             replay recorded games instead, e.g. "Survival Last Game.replay",
+ *                                      ignoring the options above except --levels, --threads, and --out
+ * @author Kevin
+ */
+public class BatchRunner
+{
+    public static final long DEFAULT_TICKS = 10*60*120L;
+    
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        HashMap<String, String> named = new HashMap<>();
+        for (String arg : args)
+        {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0)
+                throw new IllegalArgumentException("Expected --name=value, not " + arg);
+            named.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        
+        String mode = named.getOrDefault("mode", GameRun.BREAKOUT).toLowerCase(Locale.ROOT);
+        int runs = Integer.parseInt(named.getOrDefault("runs", "1000"));
+        long seed = Long.parseLong(named.getOrDefault("seed", "1"));
+        long ticks = Long.parseLong(named.getOrDefault("ticks", String.valueOf(DEFAULT_TICKS)));
+        int threads = Integer.parseInt(named.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        File out = new File(named.getOrDefault("out", "results.jsonl"));
+        GameConfig config = GameConfig.DEFAULT;
+        if (named.containsKey("size"))
+        {
+            String[] size = named.get("size").toLowerCase(Locale.ROOT).split("x");
+            config = config.withSize(Integer.parseInt(size[0].trim()), Integer.parseInt(size[1].trim()));
+        }
+        PaddleInput input = PaddleBot.INSTANCE;
+        String inputName = named.getOrDefault("input", "bot");
+        if (!inputName.equals("bot"))
+            try (Reader in = new FileReader(inputName))
+            {
+                input = InputScript.parse(inputName, in);
+            }
+        
+        String levels = named.get("levels");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (LevelPack pack = levels == null ? LevelPack.builtIn() : LevelPack.open(new File(levels));
+             BufferedWriter wr = new BufferedWriter(new FileWriter(out)))
+        {
+            ArrayList<GameRun> batch = new ArrayList<>();
+            if (named.containsKey("replay"))
+            {
+                mode = "replayed";
+                for (String file : named.get("replay").split(","))
+                    batch.add(GameRun.replay(batch.size(), ReplayArchive.open(new File(file)).getLog(), pack));
+            }
+            else
+                for (int i = 0; i < runs; ++i)
+                    batch.add(new GameRun(i, mode, seed + i, ticks, config, pack, input));
+            runs = batch.size();
+            
+            CompletionService<RunResult> results = new ExecutorCompletionService<>(pool);
+            for (GameRun run : batch)
+                results.submit(run);
+            
+            // lines are written in the order runs finish, so results stream out while later runs play
+            long start = System.nanoTime();
+            long totalTicks = 0;
+            for (int i = 0; i < runs; ++i)
+            {
+                RunResult result;
+                try
+                {
+                    result = results.take().get();
+                }
+                catch (ExecutionException e)
+                {
+                    throw new IOException("A run failed", e.getCause());
+                }
+                wr.write(result.toJson());
+                wr.newLine();
+                totalTicks += result.getTicks();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "%d %s runs on %d threads in %.2f s: %.1f runs/s, %.0f ticks/s (%.0fx real time), written to %s%n",
+                              runs, mode, threads, seconds, runs / seconds, totalTicks / seconds,
+                              totalTicks / seconds / Simulation.TICKS_PER_SECOND, out);
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,362 @@
+package arcade;
+
+import arcade.handler.GameLoop;
+import arcade.level.Level;
+import arcade.render.CanvasLayers;
+import arcade.sim.GameConfig;
+import arcade.sim.HeadlessGame;
+import arcade.sim.InputLog;
+import arcade.sim.InputRecorder;
+import arcade.sim.LevelPack;
+import arcade.sim.ReplayArchive;
+import arcade.sim.RewindBuffer;
+import arcade.sim.SaveSlots;
+import arcade.trace.LevelLoadEvent;
+import arcade.trace.TraceRecorder;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Button;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+/**
+ * The one window the whole program runs in.
+ * The main menu, the game canvas, and panels such as High Scores are swapped in and out of a single Scene,
+ * so moving between them never opens another window or waits in a nested event loop.
+ * Every game mode draws on the same CanvasLayers; Escape leaves a game or panel and returns to the menu.
+ * Each game gets its own seed and a random stream made from it, which the game's parts split
+ * their own streams from, so a game can be played again exactly from its seed.
+ * The player's input is recorded along with the seed, and every finished game's InputLog is handed on,
+ * so it can be watched again here or checked without a window. Survival and Chaos rounds are recorded one at a time.
+ * A replay can be watched from any point: the left and right arrow keys jump back or ahead SEEK_SECONDS.
+ * With save states on, the last seconds of every Level are kept in a RewindBuffer so the player can rewind them.
+ * F3 shows or hides the frame timing overlay in any game, and clears its timings when shown.
+ * Given a TraceRecorder, every frame of every game is recorded into it as a timeline.
+ * @author Kevin
+ */
+public class ScreenManager
+{
+    public static final String MENU_TITLE = "Main Menu";
+    public static final double PANEL_SIZE = 300;
+    public static final int SEEK_SECONDS = 10;
+    
+    private final Stage stage;
+    private final Scene scene;
+    private final StackPane root;
+    private final Node menu;
+    private final CanvasLayers layers;
+    private final SplittableRandom seeds; // one seed per game
+    private final InputRecorder controls; // the player's input, recorded for the current game
+    private String mode;
+    private GameConfig config; // settings of the current game
+    private long seed;
+    private SplittableRandom random; // the current game's stream
+    private InputLog replay; // null unless watching a replay
+    private ReplayArchive archive; // the replay being watched, to seek in
+    private LevelPack replayPack;
+    private Function<HeadlessGame, Level> replayLevels; // shows a restored game in the window
+    private InputLog lastRecording;
+    private Consumer<InputLog> onRecorded;
+    private GameLoop loop; // null unless a game is running
+    private RewindBuffer rewind; // allocated the first time a game allows rewinding, then reused
+    private final SaveSlots saves;
+    private boolean showingStats;
+    private TraceRecorder trace; // TraceRecorder.OFF unless the game is being traced
+    private long runTicks; // ticks of the current game played before the running Level
+    private Runnable onExit; // cleanup for the current game, e.g. stopping its music
+    
+    // seed: decides the seed of every game played, in order
+    // saves: where save states go while save states are on
+    public ScreenManager(Stage stage, Node menu, long seed, SaveSlots saves)
+    {
+        this.stage = stage;
+        this.menu = menu;
+        this.saves = saves;
+        seeds = new SplittableRandom(seed);
+        controls = new InputRecorder();
+        root = new StackPane();
+        scene = new Scene(root);
+        config = GameConfig.DEFAULT;
+        layers = new CanvasLayers();
+        trace = TraceRecorder.OFF;
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, event ->
+        {
+            if (event.getCode() == KeyCode.ESCAPE && !root.getChildren().contains(menu))
+            {
+                event.consume();
+                showMenu();
+            }
+            else if (event.getCode() == KeyCode.F3)
+            {
+                showingStats = !showingStats;
+                if (showingStats)
+                    GameLoop.STATS.reset();
+            }
+            else if ((event.getCode() == KeyCode.LEFT || event.getCode() == KeyCode.RIGHT) && archive != null && loop != null)
+            {
+                event.consume();
+                long ticks = SEEK_SECONDS*GameLoop.TICKS_PER_SECOND;
+                seekReplay(loop.getRunTicks() + (event.getCode() == KeyCode.LEFT ? -ticks : ticks));
+            }
+        });
+        stage.setScene(scene);
+        stage.setResizable(false);
+    }
+    
+    public void showMenu()
+    {
+        endGame();
+        show(MENU_TITLE, menu);
+    }
+    
+    // shows informative content such as High Scores in place of the menu, with a button back to it
+    public void showPanel(String title, Node content)
+    {
+        endGame();
+        Button back = new Button("Back");
+        back.setOnAction(event -> showMenu());
+        VBox box = new VBox(content, back);
+        box.setAlignment(Pos.CENTER);
+        box.setPrefSize(PANEL_SIZE, PANEL_SIZE);
+        show(title, box);
+    }
+    
+    // readies the canvas for a new game, whose first Level is created next and then played
+    // mode: one of the GameRun modes, recorded with the game's input
+    // config: settings for the whole game, which its Levels read through getConfig()
+    // onExit: run once the player leaves the game, or null
+    public void startGame(String mode, GameConfig config, Runnable onExit)
+    {
+        begin(mode, config, seeds.nextLong(), null, onExit);
+        controls.start(mode, seed, config);
+    }
+    // plays a recorded game at normal speed from its first tick
+    // pack: the level pack the game was played with, for Breakout
+    // levels: makes the Level that shows a game restored from the archive, with its Simulation as it is
+    public void startReplay(ReplayArchive archive, LevelPack pack, Function<HeadlessGame, Level> levels, Runnable onExit) throws IOException
+    {
+        begin(archive.getMode(), archive.getConfig(), archive.getSeed(), archive.getLog(), onExit);
+        this.archive = archive;
+        replayPack = pack;
+        replayLevels = levels;
+        seekReplay(0);
+    }
+    // continues the replay being watched from the given tick of the game
+    public void seekReplay(long tick)
+    {
+        HeadlessGame game;
+        try
+        {
+            game = archive.seek(tick, replayPack);
+        }
+        catch (IOException e)
+        {
+            System.err.println("Could not seek in replay " + archive.getFile() + ": " + e);
+            return;
+        }
+        scene.setOnMouseClicked(null); // the Level showing may have been waiting for a click
+        runTicks = game.getTicks();
+        play(replayLevels.apply(game));
+        loop.setTicks(game.getLevelTicks());
+    }
+    private void begin(String mode, GameConfig config, long seed, InputLog replay, Runnable onExit)
+    {
+        endGame();
+        this.mode = mode;
+        this.config = config;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        this.replay = replay;
+        archive = null;
+        replayPack = null;
+        replayLevels = null;
+        runTicks = 0;
+        this.onExit = onExit;
+        layers.setSize(config.getWidth(), config.getHeight());
+    }
+    
+    // runs a Level of the current game
+    public void play(Level lvl)
+    {
+        if (loop != null)
+            loop.stop();
+        if (!root.getChildren().contains(layers.getPane()))
+        {
+            root.getChildren().setAll(layers.getPane());
+            stage.sizeToScene();
+        }
+        layers.invalidate(); // the new Level draws its background and text in full
+        // runs every frame, updating at a fixed rate
+        if (replay == null)
+        {
+            if (config.isSaveStates() && rewind == null)
+                rewind = new RewindBuffer();
+            loop = new GameLoop(lvl, controls, config.isSaveStates() ? rewind : null, runTicks, Long.MAX_VALUE);
+        }
+        else
+            loop = new GameLoop(lvl, replay, null, runTicks, replay.getTicks());
+        loop.setTrace(trace);
+        loop.start();
+    }
+    
+    // called when the player clicks after a Level ends
+    public void finishLevel(Level lvl)
+    {
+        scene.setOnMouseClicked(null);
+        if (lvl.playNextLevel().get() && lvl.isStandalone() && replay != null)
+            showMenu(); // a replay is only one round
+        else if (lvl.playNextLevel().get())
+        {
+            long start = System.nanoTime();
+            if (lvl.isStandalone()) // playing again is a new game, with its own seed and recording
+            {
+                finishRecording();
+                seed = seeds.nextLong();
+                random = new SplittableRandom(seed);
+                runTicks = 0;
+                controls.start(mode, seed, config);
+            }
+            else
+                runTicks = loop.getRunTicks();
+            LevelLoadEvent event = new LevelLoadEvent(mode);
+            event.begin();
+            Level next = lvl.loadNextLevel();
+            event.setCounts(next.getSimulation());
+            event.commit();
+            play(next);
+            loop.measureTransition(start);
+        }
+        else
+            showMenu();
+    }
+    
+    private void endGame()
+    {
+        finishRecording();
+        if (loop != null)
+        {
+            loop.stop();
+            loop = null;
+        }
+        
+        // the game's input handlers would otherwise keep acting on the menu
+        scene.setOnKeyPressed(null);
+        scene.setOnKeyReleased(null);
+        scene.setOnMouseMoved(null);
+        scene.setOnMouseClicked(null);
+        scene.setCursor(Cursor.DEFAULT);
+        if (onExit != null)
+        {
+            Runnable r = onExit;
+            onExit = null;
+            r.run();
+        }
+    }
+    
+    // ends the current game's recording, e.g. once its score is known, and returns it
+    // returns null if nothing is being recorded
+    public InputLog finishRecording()
+    {
+        InputLog log = controls.finish(loop == null ? runTicks : loop.getRunTicks());
+        if (log == null)
+            return null;
+        lastRecording = log;
+        if (onRecorded != null && !config.isSaveStates()) // loading a save state can't be replayed
+            onRecorded.accept(log);
+        return log;
+    }
+    
+    private void show(String title, Node content)
+    {
+        stage.setTitle(title);
+        root.getChildren().setAll(content);
+        stage.sizeToScene();
+    }
+    
+    public void setTitle(String title)
+    {
+        stage.setTitle(title);
+    }
+    // one of the GameRun modes
+    public String getMode()
+    {
+        return mode;
+    }
+    public GameConfig getConfig()
+    {
+        return config;
+    }
+    // called on the JavaFX thread with every finished game's input
+    public void setOnRecorded(Consumer<InputLog> onRecorded)
+    {
+        this.onRecorded = onRecorded;
+    }
+    // the most recently finished game, or null
+    public InputLog getLastRecording()
+    {
+        return lastRecording;
+    }
+    public InputRecorder getControls()
+    {
+        return controls;
+    }
+    // whether Levels draw the frame timing overlay
+    public boolean isShowingStats()
+    {
+        return showingStats;
+    }
+    // every Level played from now on is traced into trace
+    public void setTrace(TraceRecorder trace)
+    {
+        this.trace = trace;
+    }
+    public TraceRecorder getTrace()
+    {
+        return trace;
+    }
+    public SaveSlots getSaveSlots()
+    {
+        return saves;
+    }
+    public boolean isReplaying()
+    {
+        return replay != null;
+    }
+    public long getSeed()
+    {
+        return seed;
+    }
+    // the current game's random stream; each part of the game takes its own with split()
+    public SplittableRandom getRandom()
+    {
+        return random;
+    }
+    // null unless a game is running
+    public GameLoop getLoop()
+    {
+        return loop;
+    }
+    public Scene getScene()
+    {
+        return scene;
+    }
+    // the layer moving sprites are drawn on
+    public Canvas getCanvas()
+    {
+        return layers.getSprites();
+    }
+    public CanvasLayers getLayers()
+    {
+        return layers;
+    }
+}
\ No newline at end of file
@@ -1,72 +1,254 @@
 package arcade.handler;
 
 import arcade.level.Level;
-import java.util.concurrent.atomic.AtomicBoolean;
-import javafx.animation.Timeline;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
+import arcade.sim.FrameStats;
+import arcade.sim.PaddleInput;
+import arcade.sim.RewindBuffer;
+import arcade.sim.Simulation;
+import arcade.trace.FramePhaseEvent;
+import arcade.trace.TraceRecorder;
+import java.io.IOException;
+import javafx.animation.AnimationTimer;
 
 /**
- * Defines what is done every frame of the game loop.
- * Used to initialize a javafx.animation.KeyFrame object.
+ * Runs a Level at a fixed number of updates per second, independent of the display's frame rate.
+ * Every frame, the real time passed since the last frame is added to an accumulator and the Level
+ * is updated once for every whole tick in it; the Level is then drawn between its last two states.
+ * Game time is counted in ticks, so it only moves forward while the game is actually simulated.
+ * Paddle input is handed to the Level's Simulation just before each tick, from the player's controls or a replay.
+ * With a RewindBuffer, the Simulation's state is kept after every tick, and while rewinding
+ * each tick steps back one frame instead of forward, taking game time back with it.
+ * Also measures level transitions, from the click that starts the next Level to that Level's first frame,
+ * and times every update, draw, Level ending, and gap between frames in STATS.
+ * Each of those phases is also a FramePhaseEvent for JDK Flight Recorder, and a span of the frame's timeline
+ * when the game is traced with a TraceRecorder.
  * @author Kevin
  */
-public class GameLoop implements EventHandler<ActionEvent>
+public class GameLoop extends AnimationTimer
 {
-    public static double timeStart;
-    private final Timeline timeline;
+    public static final int TICKS_PER_SECOND = Simulation.TICKS_PER_SECOND;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    // most ticks run in one frame; time beyond this is dropped so a long stall can't snowball
+    public static final int MAX_TICKS_PER_FRAME = 8;
+    // frame timings of every loop, for the stats overlay and diagnostics
+    public static final FrameStats STATS = FrameStats.LIVE;
+    
     private final Level lvl;
-    public static double timeElapsed;
-    private static AtomicBoolean continueGame;
+    private final PaddleInput input;
+    private final RewindBuffer rewind; // null unless rewinding is allowed
+    private boolean rewinding;
+    private TraceRecorder trace;
+    private long runTicks; // ticks of the whole game, across Breakout levels
+    private final long tickLimit; // end of a replay
+    private long ticks;
+    private double timeElapsed;
+    private long lastFrame;
+    private long accumulator;
+    private long lastCallback; // System.nanoTime() at the start of the last frame
+    private long transitionStart; // 0 unless this loop starts a transition
+    // transition metrics are kept across all loops for diagnostics
+    private static long lastTransitionNanos;
+    private static long maxTransitionNanos;
+    private static int transitions;
     
-    public GameLoop(Level lvl, double timeStart, Timeline timeline)
+    // runTicks: ticks played in earlier levels of the same game
+    // tickLimit: the game's last tick, where a replay stops; Long.MAX_VALUE for a game being played
+    // rewind: emptied and filled with this Level's frames, or null
+    public GameLoop(Level lvl, PaddleInput input, RewindBuffer rewind, long runTicks, long tickLimit)
     {
-        GameLoop.timeStart = timeStart;
         this.lvl = lvl;
-        this.timeline = timeline;
-        timeline.setOnFinished(new EventHandler<ActionEvent>() // if timeline ends on its own, i.e. Chaos game mode
+        this.input = input;
+        this.rewind = rewind;
+        if (rewind != null)
+            rewind.clear();
+        this.runTicks = runTicks;
+        this.tickLimit = tickLimit;
+        trace = TraceRecorder.OFF;
+        lastFrame = -1;
+        accumulator = 0;
+        ticks = 0;
+        timeElapsed = 0.0;
+    }
+    
+    @Override
+    public void handle(long now)
+    {
+        long frameStart = System.nanoTime();
+        if (lastCallback != 0)
+            STATS.getFrameGap().record(frameStart - lastCallback);
+        lastCallback = frameStart;
+        int frameTicks = 0;
+        
+        if (lastFrame < 0) // first frame only starts the clock
+            lastFrame = now;
+        accumulator += Math.min(now - lastFrame, MAX_TICKS_PER_FRAME*TICK_NANOS);
+        lastFrame = now;
+        
+        // update Level once per tick
+        while (accumulator >= TICK_NANOS)
         {
-            @Override
-            public void handle(ActionEvent event)
+            if (runTicks >= tickLimit) // a replay ends where the player left the game
             {
-                lvl.draw(timeElapsed);
-                lvl.printEndText();
-                if (lvl.hasNextLevel())
+                stop();
+                FramePhaseEvent event = FramePhaseEvent.start(FramePhaseEvent.LEVEL_END, runTicks);
+                long start = System.nanoTime();
+                lvl.draw(timeElapsed, 1);
+                STATS.getLevelEnd().record(System.nanoTime() - start);
+                commit(event);
+                trace.end(TraceRecorder.LEVEL_END, start);
+                trace.endFrame(frameStart, lvl.getSimulation().getBallCount(), lvl.getSimulation().getBlockCount());
+                return;
+            }
+            accumulator -= TICK_NANOS;
+            if (rewinding && rewind != null)
+            {
+                long start = trace.start();
+                long backTo = stepBack();
+                trace.end(TraceRecorder.REWIND, start);
+                if (backTo >= 0)
                 {
-                    lvl.continueCheck();
-                    continueGame = lvl.playNextLevel();
+                    ticks = backTo;
+                    timeElapsed = (double) ticks / TICKS_PER_SECOND;
                 }
+                continue;
             }
-        });
-        timeElapsed = 0.0;
-        continueGame = new AtomicBoolean(); // defaults to false
+            ++ticks;
+            timeElapsed = (double) ticks / TICKS_PER_SECOND;
+            input.control(lvl.getSimulation(), ++runTicks);
+            trace.setTick(runTicks);
+            FramePhaseEvent event = FramePhaseEvent.start(FramePhaseEvent.UPDATE, runTicks);
+            long start = System.nanoTime();
+            lvl.update(timeElapsed);
+            STATS.getUpdate().record(System.nanoTime() - start);
+            commit(event);
+            trace.end(TraceRecorder.TICK, start);
+            ++frameTicks;
+            if (rewind != null)
+            {
+                start = trace.start();
+                capture();
+                trace.end(TraceRecorder.REWIND, start);
+            }
+            
+            // check if Level is over after updating
+            if (lvl.isOver())
+            {
+                stop(); // stop running
+                event = FramePhaseEvent.start(FramePhaseEvent.LEVEL_END, runTicks);
+                start = System.nanoTime();
+                lvl.draw(timeElapsed, 1); // draw ending frame after final update
+                lvl.printEndText();
+                lvl.continueCheck(); // the Level tells the ScreenManager whether the player wants to keep playing
+                STATS.getLevelEnd().record(System.nanoTime() - start);
+                commit(event);
+                trace.end(TraceRecorder.LEVEL_END, start);
+                trace.endFrame(frameStart, lvl.getSimulation().getBallCount(), lvl.getSimulation().getBlockCount());
+                return;
+            }
+        }
+        
+        // draw partway between the last two updates, based on time left over in the accumulator
+        FramePhaseEvent event = FramePhaseEvent.start(FramePhaseEvent.DRAW, runTicks);
+        long start = System.nanoTime();
+        lvl.draw(timeElapsed, (double) accumulator / TICK_NANOS);
+        STATS.getDraw().record(System.nanoTime() - start);
+        commit(event);
+        trace.end(TraceRecorder.DRAW, start);
+        STATS.frame(frameStart, frameTicks, lvl.getSimulation());
+        trace.endFrame(frameStart, lvl.getSimulation().getBallCount(), lvl.getSimulation().getBlockCount());
+        if (transitionStart != 0) // first frame of the next Level
+        {
+            lastTransitionNanos = System.nanoTime() - transitionStart;
+            maxTransitionNanos = Math.max(maxTransitionNanos, lastTransitionNanos);
+            ++transitions;
+            transitionStart = 0;
+        }
     }
     
-    @Override
-    public void handle(ActionEvent event)
+    private void commit(FramePhaseEvent event)
     {
-        // draw and update Level every frame
-        timeElapsed = (System.currentTimeMillis() - timeStart) / 1000;
-        lvl.draw(timeElapsed);
-        lvl.update(timeElapsed);
-        
-        // check if Level is over after updating
-        if (lvl.isOver())
+        if (event != null && event.shouldCommit()) // only while a recording wants these events
+        {
+            event.setCounts(lvl.getSimulation());
+            event.commit();
+        }
+    }
+    private void capture()
+    {
+        try
+        {
+            rewind.capture(lvl.getSimulation(), ticks);
+        }
+        catch (IOException e)
         {
-            timeline.stop(); // stop running
-            lvl.draw(timeElapsed); // draw ending frame after final update
-            lvl.printEndText();
-            lvl.continueCheck(); // check if player wants to keep playing
-            if (lvl.hasNextLevel())
-                continueGame = lvl.playNextLevel(); // binds this variable to variable in Level by reference (AtomicBoolean)
-                                                    // because they share references, the check can be performed inside the Level,
-                                                    // and therefore only one assignment is necessary to ensure check is done correctly
+            throw new IllegalStateException("Could not keep the game's state for rewinding", e);
         }
     }
+    // returns the tick stepped back to, or -1 once no earlier frames are left
+    private long stepBack()
+    {
+        try
+        {
+            return rewind.rewind(lvl.getSimulation());
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Could not rewind the game", e);
+        }
+    }
+    // while true, time runs backwards through the RewindBuffer, if there is one
+    public void setRewinding(boolean rewinding)
+    {
+        this.rewinding = rewinding;
+    }
+    
+    // records this loop's frames, and its Level's updates, as spans of the trace
+    public void setTrace(TraceRecorder trace)
+    {
+        this.trace = trace;
+        lvl.getSimulation().setTrace(trace);
+    }
+    
+    // start: System.nanoTime() when the player chose to play this loop's Level
+    public void measureTransition(long start)
+    {
+        transitionStart = start;
+    }
+    // transition latencies so far, in milliseconds
+    public static double getLastTransitionMillis()
+    {
+        return lastTransitionNanos / 1e6;
+    }
+    public static double getMaxTransitionMillis()
+    {
+        return maxTransitionNanos / 1e6;
+    }
+    public static int getTransitions()
+    {
+        return transitions;
+    }
     
-    // called after game window is closed due to showAndWait() in main class
-    public static boolean continueGame()
+    // used when restoring a saved state or seeking in a replay
+    public void setTicks(long ticks)
+    {
+        this.ticks = ticks;
+        timeElapsed = (double) ticks / TICKS_PER_SECOND;
+    }
+    // game time of the Level, in ticks
+    public long getTicks()
+    {
+        return ticks;
+    }
+    public double getTimeElapsed()
+    {
+        return timeElapsed;
+    }
+    public long getRunTicks()
+    {
+        return runTicks;
+    }
+    public Level getLevel()
     {
-        return continueGame.get();
+        return lvl;
     }
-}
\ No newline at end of file
+}
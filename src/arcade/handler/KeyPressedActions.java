@@ -1,63 +1,84 @@
 package arcade.handler;
 
-import arcade.Arcade;
+import arcade.ScreenManager;
 import arcade.level.Level;
-import arcade.level.breakout.BreakoutLevel;
-import arcade.sprite.Block;
-import arcade.sprite.Paddle;
-import java.util.ArrayList;
+import arcade.sim.InputRecorder;
+import arcade.sim.SaveSlots;
+import arcade.sim.Snapshot;
+import java.io.IOException;
 import javafx.event.EventHandler;
 import javafx.scene.input.KeyEvent;
 
 /**
- * Contains all actions for key presses, such as Paddle moving and saving/loading states.
+ * Contains all actions for key presses, such as Paddle moving, saving/loading states, and rewinding.
+ * With save states on, 1-9 choose a save slot, Q saves the Level to it, and E loads it back, in any game mode.
  * @author Kevin
  */
 public class KeyPressedActions implements EventHandler<KeyEvent>
 {
-    private final Paddle p;
-    private BreakoutLevel bLvl;
-    private double savedTimeElapsed;
-    private int savedScore;
-    private int savedDrops;
-    private ArrayList<Block> savedBlocks;
-    private double savedBallX;
-    private double savedBallY;
-    private double savedBallSpeed;
-    private double savedBallAngle;
-
-    public KeyPressedActions(Paddle p, Level lvl)
+    public static final String DEFAULT_SLOT = "1";
+    
+    private final ScreenManager screens;
+    private final InputRecorder controls;
+    private final Level lvl;
+    private final boolean saveStates;
+    private String slot;
+    
+    public KeyPressedActions(ScreenManager screens, Level lvl)
     {
-        this.p = p;
-        if (lvl instanceof BreakoutLevel)
-            bLvl = (BreakoutLevel) lvl;
+        this.screens = screens;
+        this.lvl = lvl;
+        controls = screens.getControls();
+        saveStates = lvl.getSimulation().getWorld().getConfig().isSaveStates();
+        slot = DEFAULT_SLOT;
     }
-
+    
     @Override
     public void handle(KeyEvent event)
     {
         switch (event.getCode())
         {
-            case LEFT: case A:  p.setMoveLeft(true); break;
-            case RIGHT: case D: p.setMoveRight(true); break;
-            case Q: if (Arcade.SAVE_STATES)
-            {
-                savedTimeElapsed = GameLoop.timeElapsed;
-                savedScore = bLvl.getScore();
-                savedDrops = bLvl.getDrops();
-                savedBlocks = new ArrayList<>();
-                for (Block bl : bLvl.getBlocks())
-                    savedBlocks.add(bl);
-                savedBallX = bLvl.getBall().getX();
-                savedBallY = bLvl.getBall().getY();
-                savedBallSpeed = bLvl.getBall().getSpeed();
-                savedBallAngle = bLvl.getBall().getAngle();
-            }
+            case LEFT: case A:  controls.setMoveLeft(true); break;
+            case RIGHT: case D: controls.setMoveRight(true); break;
+            case DIGIT1: case DIGIT2: case DIGIT3: case DIGIT4: case DIGIT5:
+            case DIGIT6: case DIGIT7: case DIGIT8: case DIGIT9: if (saveStates)
+                slot = event.getCode().getName();
+            break;
+            case Q: if (saveStates && screens.getLoop() != null)
+                save();
+            break;
+            case E: if (saveStates && screens.getLoop() != null)
+                load();
             break;
-            case E: if (Arcade.SAVE_STATES)
-                bLvl.loadState(savedTimeElapsed, savedScore, savedDrops, savedBlocks,
-                               savedBallX, savedBallY, savedBallSpeed, savedBallAngle);
+            case R: if (saveStates && screens.getLoop() != null) // held down to rewind
+                screens.getLoop().setRewinding(true);
             break;
         }
     }
+    
+    private void save()
+    {
+        try
+        {
+            screens.getSaveSlots().save(slot, lvl.snapshot());
+        }
+        catch (IOException e)
+        {
+            System.err.println("Could not save state: " + e);
+        }
+    }
+    private void load()
+    {
+        SaveSlots saves = screens.getSaveSlots();
+        try
+        {
+            Snapshot snapshot = saves.load(screens.getMode(), slot);
+            if (snapshot != null)
+                lvl.restore(snapshot);
+        }
+        catch (IOException | IllegalArgumentException e) // a damaged file, or a state from another level
+        {
+            System.err.println("Could not load state from " + saves.getFile(screens.getMode(), slot) + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
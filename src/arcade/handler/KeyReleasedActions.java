@@ -1,20 +1,23 @@
 package arcade.handler;
 
-import arcade.sprite.Paddle;
+import arcade.ScreenManager;
+import arcade.sim.InputRecorder;
 import javafx.event.EventHandler;
 import javafx.scene.input.KeyEvent;
 
 /**
- * Contains all actions for key releases, such as Paddle stopping.
+ * Contains all actions for key releases, such as Paddle stopping and rewinding ending.
  * @author Kevin
  */
 public class KeyReleasedActions implements EventHandler<KeyEvent>
 {
-    private final Paddle p;
+    private final ScreenManager screens;
+    private final InputRecorder controls;
     
-    public KeyReleasedActions(Paddle p)
+    public KeyReleasedActions(ScreenManager screens)
     {
-        this.p = p;
+        this.screens = screens;
+        controls = screens.getControls();
     }
     
     @Override
@@ -22,8 +25,9 @@ public class KeyReleasedActions implements EventHandler<KeyEvent>
     {
         switch (event.getCode())
         {
-            case LEFT: case A:  p.setMoveLeft(false); break;
-            case RIGHT: case D: p.setMoveRight(false); break;
+            case LEFT: case A:  controls.setMoveLeft(false); break;
+            case RIGHT: case D: controls.setMoveRight(false); break;
+            case R: if (screens.getLoop() != null) screens.getLoop().setRewinding(false); break;
         }
     }
 }
\ No newline at end of file
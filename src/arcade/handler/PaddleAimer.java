@@ -1,6 +1,6 @@
 package arcade.handler;
 
-import arcade.sprite.Paddle;
+import arcade.sim.InputRecorder;
 import javafx.event.EventHandler;
 import javafx.scene.input.MouseEvent;
 
@@ -10,16 +10,16 @@ import javafx.scene.input.MouseEvent;
  */
 public class PaddleAimer implements EventHandler<MouseEvent>
 {
-    private final Paddle p;
+    private final InputRecorder controls;
     
-    public PaddleAimer(Paddle p)
+    public PaddleAimer(InputRecorder controls)
     {
-        this.p = p;
+        this.controls = controls;
     }
     
     @Override
     public void handle(MouseEvent event)
     {
-        p.setX(event.getX() - p.getWidth() / 2);
+        controls.aim(event.getX()); // the Paddle is centered on it at the next tick
     }
 }
\ No newline at end of file
@@ -1,24 +1,34 @@
 package arcade.level;
 
 import arcade.Arcade;
+import arcade.ScreenManager;
+import arcade.render.CanvasLayers;
+import arcade.render.HudText;
+import arcade.render.SpriteRenderer;
+import arcade.sim.ChaosSimulation;
+import arcade.sim.GameRun;
+import arcade.sim.Snapshot;
+import arcade.sim.World;
 import arcade.sprite.Ball;
 import arcade.sprite.Paddle;
+import arcade.handler.GameLoop;
 import arcade.handler.PaddleAimer;
 import arcade.handler.KeyPressedActions;
 import arcade.handler.KeyReleasedActions;
-import java.util.Random;
+import arcade.trace.TraceRecorder;
+import java.io.IOException;
+import java.util.SplittableRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.event.EventHandler;
 import javafx.geometry.VPos;
 import javafx.scene.Cursor;
-import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
-import javafx.stage.Stage;
 
 /**
  * Creates a Level of the Chaos game mode.
@@ -27,73 +37,144 @@ import javafx.stage.Stage;
 public class ChaosLevel implements Level
 {
     public static final String GAME_MODE = "Chaos";
+    private static final int LEVEL_NUM = 1;
     
-    private final Stage stage;
+    private final ScreenManager screens;
     private final Scene scene;
     private final Canvas canvas;
     private final GraphicsContext gc;
-    private final Paddle p;
-    private final Ball[] balls;
+    private final CanvasLayers layers;
+    private final GraphicsContext background;
+    private final SpriteRenderer renderer;
+    private final ChaosSimulation sim;
+    private final HudText hud;
     private final AtomicBoolean playNextLevel;
-    private int drops;
+    private int colorChanges;
+    // every color of a game, worked out once when it starts so changing colors allocates nothing
+    private Color[] backgroundColors;
+    private Color[] textColors;
+    private Color backgroundColor;
+    private Color textColor;
     
-    public ChaosLevel(Stage stage, Canvas canvas)
+    public ChaosLevel(ScreenManager screens)
     {
-        stage.setTitle(GAME_MODE);
-        this.stage = stage;
-        scene = stage.getScene();
-        this.canvas = canvas;
+        this(screens, new ChaosSimulation(new World(screens.getConfig()), screens.getRandom().split()));
+    }
+    // plays a round already in progress, such as one restored from a replay's keyframe
+    public ChaosLevel(ScreenManager screens, ChaosSimulation sim)
+    {
+        screens.setTitle(GAME_MODE);
+        this.screens = screens;
+        scene = screens.getScene();
+        canvas = screens.getCanvas();
         gc = canvas.getGraphicsContext2D();
-        p = new Paddle(canvas);
-        scene.setOnKeyPressed(new KeyPressedActions(p, this));
-        scene.setOnKeyReleased(new KeyReleasedActions(p));
+        layers = screens.getLayers();
+        background = layers.getBackground().getGraphicsContext2D();
+        renderer = new SpriteRenderer(gc);
+        renderer.setDrawnRegion(layers.getDrawnSprites());
+        this.sim = sim;
+        hud = new HudText("Total Balls: ", "\nTotal Drops: ", "\nSeconds left: ");
+        scene.setOnKeyPressed(new KeyPressedActions(screens, this));
+        scene.setOnKeyReleased(new KeyReleasedActions(screens));
         scene.setCursor(Cursor.CROSSHAIR);
-        scene.setOnMouseMoved(new PaddleAimer(p));
-        Random r = new Random();
-        balls = new Ball[r.nextInt(100) + 1];
-        for (int i = 0; i < balls.length; ++i)
-            balls[i] = new Ball(canvas, Ball.DEFAULT_RADIUS,
-                           r.nextDouble() * canvas.getWidth(),
-                           r.nextDouble() * p.getY(),
-                           Arcade.STAGE_HEIGHT/180.0, r.nextDouble() * 150 + 195);
+        scene.setOnMouseMoved(new PaddleAimer(screens.getControls()));
         playNextLevel = new AtomicBoolean();
-        drops = 0;
+        colorChanges = 0;
+        backgroundColor = Arcade.DEFAULT_BACKGROUND_COLOR;
+        textColor = Arcade.DEFAULT_TEXT_COLOR;
+        pickColors(screens.getSeed());
     }
     
     @Override
-    public void draw(double timeElapsed)
-    {
-        gc.setFill(Arcade.BACKGROUND_COLOR);
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-        p.draw();
-        for (Ball b : balls)
-            b.draw();
-        gc.setFill(Arcade.TEXT_COLOR);
-        gc.fillText("Total Balls: " + balls.length
-                  + "\nTotal Drops: " + drops
-                  + "\nSeconds left: " + (30 - (int)timeElapsed), 0, 10);
+    public void draw(double timeElapsed, double alpha)
+    {
+        TraceRecorder trace = screens.getTrace();
+        if (layers.isBackgroundStale(colorChanges)) // only when the colors change
+        {
+            background.setFill(backgroundColor);
+            background.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        }
+        layers.clearSprites();
+        renderer.setInterpolation(alpha);
+        long start = trace.start();
+        renderer.draw(sim.getPaddle());
+        trace.end(TraceRecorder.DRAW_PADDLE, start);
+        start = trace.start();
+        for (Ball b : sim.getBalls())
+            renderer.draw(b);
+        trace.end(TraceRecorder.DRAW_BALLS, start);
+        start = trace.start();
+        hud.set(0, sim.getBallCount());
+        hud.set(1, sim.getDrops());
+        hud.set(2, (int)ChaosSimulation.TIME_LIMIT - (int)timeElapsed);
+        layers.drawHud(hud, textColor, screens.isShowingStats() ? GameLoop.STATS : null);
+        trace.end(TraceRecorder.DRAW_HUD, start);
     }
     
     @Override
     public void update(double timeElapsed)
     {
-        for (Ball b : balls)
-            if (!(b.hitsPaddle(p) || b.hitsWall()))
-                if (b.updatePos())
-                    ++drops;
-        p.updatePos();
+        sim.update(timeElapsed);
+        
+        // change the background color every third of a second of game time
+        // the colors are all picked when the game starts, so a replay shows the same colors wherever it's watched from
+        int changes = (int)(timeElapsed*3);
+        if (changes != colorChanges)
+        {
+            long start = screens.getTrace().start();
+            colorChanges = changes;
+            if (changes == 0)
+            {
+                backgroundColor = Arcade.DEFAULT_BACKGROUND_COLOR;
+                textColor = Arcade.DEFAULT_TEXT_COLOR;
+            }
+            else
+            {
+                int i = Math.min(changes, backgroundColors.length - 1); // past the end only if the last update runs past the time limit
+                backgroundColor = backgroundColors[i];
+                textColor = textColors[i];
+            }
+            screens.getTrace().end(TraceRecorder.COLOR_CHANGE, start);
+        }
+    }
+    
+    // draws the game's colors in order from one stream, split from the game's stream right after the Simulation's
+    // the game's stream is made again from its seed, as a HeadlessGame does, since a replay's Level may be made
+    // after the window's stream has been split for other seeks
+    private void pickColors(long seed)
+    {
+        SplittableRandom game = new SplittableRandom(seed);
+        game.split(); // the Simulation's
+        SplittableRandom colorRandom = game.split();
+        int count = (int)(ChaosSimulation.TIME_LIMIT*3) + 1;
+        if (backgroundColors == null)
+        {
+            backgroundColors = new Color[count];
+            textColors = new Color[count];
+        }
+        for (int i = 1; i < count; ++i)
+        {
+            backgroundColors[i] = Color.color(colorRandom.nextDouble(), colorRandom.nextDouble(), colorRandom.nextDouble());
+            textColors[i] = backgroundColors[i].invert();
+            // JavaFX makes a Color's paint for drawing the first time it's drawn, so each is drawn once now,
+            // into a corner of the background the Level's first frame paints over
+            background.setFill(backgroundColors[i]);
+            background.fillRect(0, 0, 1, 1);
+            background.setFill(textColors[i]);
+            background.fillRect(0, 0, 1, 1);
+        }
     }
     
     @Override
     public boolean isOver()
     {
-        return false; // ends when timeline ends
+        return sim.isOver();
     }
     
     @Override
     public void printEndText()
     {
-        gc.setFill(Arcade.TEXT_COLOR);
+        gc.setFill(textColor);
         Font temp = gc.getFont();
         TextAlignment temp2 = gc.getTextAlign();
         VPos temp3 = gc.getTextBaseline();
@@ -101,7 +182,7 @@ public class ChaosLevel implements Level
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setTextBaseline(VPos.CENTER);
         gc.fillText("Finish!"
-                  + "\nYou ended with " + drops + " drops."
+                  + "\nYou ended with " + sim.getDrops() + " drops."
                   + "\nClick anywhere to play again."
                                         ,
                     canvas.getWidth()/2, canvas.getHeight()/2);
@@ -129,7 +210,7 @@ public class ChaosLevel implements Level
             public void handle(MouseEvent event)
             {
                 playNextLevel.set(true);
-                stage.close();
+                screens.finishLevel(ChaosLevel.this);
             }
         });
     }
@@ -141,27 +222,48 @@ public class ChaosLevel implements Level
     @Override
     public ChaosLevel loadNextLevel()
     {
-        Group root = new Group();
-        root.getChildren().add(canvas);
-        stage.setScene(new Scene(root));
-        return new ChaosLevel(stage, canvas);
+        // playing again starts this Level over in place instead of building a new one
+        playNextLevel.set(false);
+        sim.reset(screens.getRandom().split()); // the ScreenManager has started a new game with a new seed
+        colorChanges = 0;
+        backgroundColor = Arcade.DEFAULT_BACKGROUND_COLOR;
+        textColor = Arcade.DEFAULT_TEXT_COLOR;
+        pickColors(screens.getSeed());
+        return this;
+    }
+    
+    @Override
+    public Snapshot snapshot() throws IOException
+    {
+        return Snapshot.take(GameRun.CHAOS, LEVEL_NUM, sim, screens.getLoop().getTicks());
+    }
+    @Override
+    public void restore(Snapshot snapshot) throws IOException
+    {
+        snapshot.restore(GameRun.CHAOS, LEVEL_NUM, sim);
+        screens.getLoop().setTicks(snapshot.getTicks());
     }
     
+    @Override
+    public ChaosSimulation getSimulation()
+    {
+        return sim;
+    }
     public Paddle getPaddle()
     {
-        return p;
+        return sim.getPaddle();
     }
     public Ball[] getBalls()
     {
-        return balls;
+        return sim.getBalls();
     }
     public int getDrops()
     {
-        return drops;
+        return sim.getDrops();
     }
-    public Stage getStage()
+    public ScreenManager getScreens()
     {
-        return stage;
+        return screens;
     }
     public Canvas getCanvas()
     {
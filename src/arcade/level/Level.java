@@ -1,15 +1,20 @@
 package arcade.level;
 
+import arcade.sim.Simulation;
+import arcade.sim.Snapshot;
+import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Defines how to create a game level.
+ * A Level draws its Simulation and handles input; the game logic itself lives in the Simulation.
+ * Any Level can be saved to a Snapshot while it runs and put back into one later.
  * @author Kevin
  */
 public interface Level
 {    
     // all methods needed to be a Level
-    public void draw(double timeElapsed);
+    public void draw(double timeElapsed, double alpha); // alpha: how far between the last two updates to draw sprites
     public void update(double timeElapsed);
     public boolean isOver();
     public void printEndText();
@@ -18,4 +23,7 @@ public interface Level
     public void continueCheck();
     public AtomicBoolean playNextLevel(); // to pass the boolean by reference
     public Level loadNextLevel();
+    public Simulation getSimulation();
+    public Snapshot snapshot() throws IOException; // the Level's state and game time, while its GameLoop runs
+    public void restore(Snapshot snapshot) throws IOException; // throws IllegalArgumentException for another Level's snapshot
 }
\ No newline at end of file
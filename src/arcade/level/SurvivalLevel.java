@@ -1,26 +1,33 @@
 package arcade.level;
 
 import arcade.Arcade;
-import arcade.sprite.Ball;
+import arcade.ScreenManager;
+import arcade.render.CanvasLayers;
+import arcade.render.HudText;
+import arcade.render.SpriteRenderer;
+import arcade.sim.GameRun;
+import arcade.sim.Snapshot;
+import arcade.sim.SurvivalSimulation;
+import arcade.sim.World;
 import arcade.sprite.Paddle;
+import arcade.handler.GameLoop;
 import arcade.handler.PaddleAimer;
 import arcade.handler.KeyPressedActions;
 import arcade.handler.KeyReleasedActions;
 import arcade.sprite.SurvivalBall;
+import arcade.trace.TraceRecorder;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.event.EventHandler;
 import javafx.geometry.VPos;
 import javafx.scene.Cursor;
-import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
-import javafx.stage.Stage;
 
 /**
  * Creates a Level of the Survival game mode.
@@ -32,75 +39,84 @@ public class SurvivalLevel implements ScoringLevel
     public static final int HIGH_SCORE_GAME_NUM = 1;
     private static final int LEVEL_NUM = 1;
     
-    private final Stage stage;
+    private final ScreenManager screens;
     private final Scene scene;
     private final Canvas canvas;
     private final GraphicsContext gc;
-    private final Paddle p;
-    private final ArrayList<SurvivalBall> balls;
+    private final CanvasLayers layers;
+    private final GraphicsContext background;
+    private final SpriteRenderer renderer;
+    private final SurvivalSimulation sim;
+    private final HudText hud;
     private final AtomicBoolean playNextLevel;
-    private int score;
-    private int drops;
     
-    public SurvivalLevel(Stage stage, Canvas canvas)
+    public SurvivalLevel(ScreenManager screens)
     {
-        stage.setTitle(GAME_MODE);
-        this.stage = stage;
-        scene = stage.getScene();
-        this.canvas = canvas;
+        this(screens, new SurvivalSimulation(new World(screens.getConfig()), screens.getRandom().split()));
+    }
+    // plays a round already in progress, such as one restored from a replay's keyframe
+    public SurvivalLevel(ScreenManager screens, SurvivalSimulation sim)
+    {
+        screens.setTitle(GAME_MODE);
+        this.screens = screens;
+        scene = screens.getScene();
+        canvas = screens.getCanvas();
         gc = canvas.getGraphicsContext2D();
-        p = new Paddle(canvas);
-        scene.setOnKeyPressed(new KeyPressedActions(p, this));
-        scene.setOnKeyReleased(new KeyReleasedActions(p));
+        layers = screens.getLayers();
+        background = layers.getBackground().getGraphicsContext2D();
+        renderer = new SpriteRenderer(gc);
+        renderer.setDrawnRegion(layers.getDrawnSprites());
+        this.sim = sim;
+        hud = new HudText("Total Balls: ", "\nSeconds Elapsed: ", "\nScore: ");
+        scene.setOnKeyPressed(new KeyPressedActions(screens, this));
+        scene.setOnKeyReleased(new KeyReleasedActions(screens));
         scene.setCursor(Cursor.CROSSHAIR);
-        scene.setOnMouseMoved(new PaddleAimer(p));
-        balls = new ArrayList<>();
-        Random r = new Random();
-        balls.add(new SurvivalBall(canvas, Ball.DEFAULT_RADIUS,
-                                   r.nextDouble() * canvas.getWidth(),
-                                   r.nextDouble() * p.getY(), // can't spawn below paddle
-                                   Arcade.STAGE_HEIGHT/600.0, r.nextDouble() * (180 - 2*Ball.MIN_ANGLE) + (180 + Ball.MIN_ANGLE))); // slower speed than usual,
-                                                                    // angle = same as possible angles from paddle
+        scene.setOnMouseMoved(new PaddleAimer(screens.getControls()));
         playNextLevel = new AtomicBoolean();
-        score = 0;
-        drops = 0;
     }
     
     @Override
-    public void draw(double timeElapsed)
-    {
-        gc.setFill(Arcade.BACKGROUND_COLOR);
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-        p.draw();
-        for (Ball b : balls)
-            b.draw();
-        gc.setFill(Arcade.TEXT_COLOR);
-        gc.fillText("Total Balls: " + balls.size()
-                  + "\nSeconds Elapsed: " + timeElapsed
-                  + "\nScore: " + score, 0, 10);
+    public void draw(double timeElapsed, double alpha)
+    {
+        TraceRecorder trace = screens.getTrace();
+        if (layers.isBackgroundStale(0)) // only once per Level
+        {
+            background.setFill(Arcade.DEFAULT_BACKGROUND_COLOR);
+            background.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        }
+        layers.clearSprites();
+        renderer.setInterpolation(alpha);
+        long start = trace.start();
+        renderer.draw(sim.getPaddle());
+        trace.end(TraceRecorder.DRAW_PADDLE, start);
+        start = trace.start();
+        for (int i = 0; i < sim.getBallCount(); ++i)
+            renderer.draw(sim.getBall(i));
+        trace.end(TraceRecorder.DRAW_BALLS, start);
+        start = trace.start();
+        hud.set(0, sim.getBallCount());
+        hud.set(1, (long) timeElapsed);
+        hud.set(2, sim.getScore());
+        layers.drawHud(hud, Arcade.DEFAULT_TEXT_COLOR, screens.isShowingStats() ? GameLoop.STATS : null);
+        trace.end(TraceRecorder.DRAW_HUD, start);
     }
     
     @Override
     public void update(double timeElapsed)
     {
-        for (Ball b : balls)
-            if (!(b.hitsPaddle(p) || b.hitsWall()))
-                if (b.updatePos())
-                    ++drops;
-        p.updatePos();
-        score = 100*(int)timeElapsed;
+        sim.update(timeElapsed);
     }
     
     @Override
     public boolean isOver()
     {
-        return drops > 0;
+        return sim.isOver();
     }
     
     @Override
     public void printEndText()
     {
-        gc.setFill(Arcade.TEXT_COLOR);
+        gc.setFill(Arcade.DEFAULT_TEXT_COLOR);
         Font temp = gc.getFont();
         TextAlignment temp2 = gc.getTextAlign();
         VPos temp3 = gc.getTextBaseline();
@@ -108,11 +124,11 @@ public class SurvivalLevel implements ScoringLevel
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setTextBaseline(VPos.CENTER);
         gc.fillText("GAME OVER"
-                  + "\nYour final score is: " + score
+                  + "\nYour final score is: " + sim.getScore()
                   + "\nClick anywhere to play again."
                                         ,
                     canvas.getWidth()/2, canvas.getHeight()/2);
-        ScoringLevel.recordScore(this);
+        ScoringLevel.recordScore(this, screens, null);
         gc.setFont(temp);
         gc.setTextAlign(temp2);
         gc.setTextBaseline(temp3);
@@ -137,7 +153,7 @@ public class SurvivalLevel implements ScoringLevel
             public void handle(MouseEvent event)
             {
                 playNextLevel.set(true);
-                stage.close();
+                screens.finishLevel(SurvivalLevel.this);
             }
         });
     }
@@ -149,10 +165,22 @@ public class SurvivalLevel implements ScoringLevel
     @Override
     public SurvivalLevel loadNextLevel()
     {
-        Group root = new Group();
-        root.getChildren().add(canvas);
-        stage.setScene(new Scene(root));
-        return new SurvivalLevel(stage, canvas);
+        // playing again starts this Level over in place instead of building a new one
+        playNextLevel.set(false);
+        sim.reset(screens.getRandom().split()); // the ScreenManager has started a new game with a new seed
+        return this;
+    }
+    
+    @Override
+    public Snapshot snapshot() throws IOException
+    {
+        return Snapshot.take(GameRun.SURVIVAL, LEVEL_NUM, sim, screens.getLoop().getTicks());
+    }
+    @Override
+    public void restore(Snapshot snapshot) throws IOException
+    {
+        snapshot.restore(GameRun.SURVIVAL, LEVEL_NUM, sim);
+        screens.getLoop().setTicks(snapshot.getTicks());
     }
     
     @Override
@@ -168,23 +196,28 @@ public class SurvivalLevel implements ScoringLevel
     @Override
     public int getScore()
     {
-        return score;
+        return sim.getScore();
+    }
+    @Override
+    public SurvivalSimulation getSimulation()
+    {
+        return sim;
     }
     public Paddle getPaddle()
     {
-        return p;
+        return sim.getPaddle();
     }
     public ArrayList<SurvivalBall> getBalls()
     {
-        return balls;
+        return sim.getBalls();
     }
     public int getDrops()
     {
-        return drops;
+        return sim.getDrops();
     }
-    public Stage getStage()
+    public ScreenManager getScreens()
     {
-        return stage;
+        return screens;
     }
     public Canvas getCanvas()
     {
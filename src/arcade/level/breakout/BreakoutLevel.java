@@ -1,19 +1,50 @@
 package arcade.level.breakout;
 
+import arcade.Arcade;
+import arcade.ScreenManager;
+import arcade.render.CanvasLayers;
+import arcade.render.DirtyRegion;
+import arcade.render.HudText;
+import arcade.render.SpriteRenderer;
+import arcade.sim.BreakoutLevelData;
+import arcade.sim.BreakoutSimulation;
+import arcade.sim.GameRun;
+import arcade.sim.LevelPack;
+import arcade.sim.Snapshot;
+import arcade.sim.World;
 import arcade.sprite.Ball;
 import arcade.sprite.Block;
 import arcade.sprite.Paddle;
+import arcade.handler.GameLoop;
+import arcade.handler.PaddleAimer;
+import arcade.handler.KeyPressedActions;
+import arcade.handler.KeyReleasedActions;
 import arcade.level.ScoringLevel;
+import arcade.trace.TraceRecorder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.event.EventHandler;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
-import javafx.stage.Stage;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
 
 /**
- * Defines how to create a Level of the Breakout game mode.
+ * A Level of the Breakout game mode, played from a level file in a LevelPack.
+ * Block layout and game logic come from BreakoutLevelData and BreakoutSimulation,
+ * so this one class plays every level; the last level in a pack is the one with no next level.
+ * While a level is played, the next one is prepared in the background so starting it takes no loading.
  * @author Kevin
  */
-public interface BreakoutLevel extends ScoringLevel
+public class BreakoutLevel implements ScoringLevel
 {
     // game mode used for recording scores and displaying name in titles
     public static final String GAME_MODE = "Breakout";
@@ -21,24 +52,314 @@ public interface BreakoutLevel extends ScoringLevel
     
     public static final int DEFAULT_LIVES = 3;
     
-    // getters for all fields in a game of Breakout
-    public Stage getStage();
-    public Canvas getCanvas();
-    public Scene getScene();
-    public ArrayList<Block> getBlocks();
-    public Paddle getPaddle();
-    public Ball getBall();
-    public int getTotalBlocks();
-    public int getBlocksBroken();
-    public int getDrops();
-    public int getLives();
+    private final ScreenManager screens;
+    private final Scene scene;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final CanvasLayers layers;
+    private final GraphicsContext background;
+    private final SpriteRenderer renderer;
+    private final SpriteRenderer blockRenderer; // draws onto the background layer
+    private final LevelPack pack;
+    private final BreakoutLevelData data;
+    private final BreakoutSimulation sim;
+    private final HudText hud;
+    private final Future<BreakoutSimulation> next; // null for the last level
+    private final AtomicBoolean playNextLevel;
     
+    // starts the first level of the pack
+    public BreakoutLevel(ScreenManager screens, LevelPack pack, int score, int lives)
+    {
+        this(screens, pack, load(pack, null), score, lives);
+    }
+    public BreakoutLevel(ScreenManager screens, LevelPack pack, BreakoutLevelData data, int score, int lives)
+    {
+        this(screens, pack, data, data.createSimulation(new World(screens.getConfig()), score, lives));
+    }
+    // plays a level already in progress, such as one restored from a replay's keyframe
+    public BreakoutLevel(ScreenManager screens, LevelPack pack, BreakoutLevelData data, BreakoutSimulation sim)
+    {
+        screens.setTitle(GAME_MODE + " Level " + data.getLevelNum());
+        this.screens = screens;
+        scene = screens.getScene();
+        canvas = screens.getCanvas();
+        gc = canvas.getGraphicsContext2D();
+        layers = screens.getLayers();
+        background = layers.getBackground().getGraphicsContext2D();
+        renderer = new SpriteRenderer(gc);
+        renderer.setDrawnRegion(layers.getDrawnSprites());
+        blockRenderer = new SpriteRenderer(background);
+        this.pack = pack;
+        this.data = data;
+        this.sim = sim;
+        hud = new HudText("Lives: ", "\nBlocks Broken: ", "/", "\nSeconds Elapsed: ", "\nScore: ");
+        next = data.hasNext() ? pack.prepare(data.getNext(), sim.getWorld()) : null;
+        scene.setOnKeyPressed(new KeyPressedActions(screens, this));
+        scene.setOnKeyReleased(new KeyReleasedActions(screens));
+        scene.setCursor(Cursor.CROSSHAIR);
+        scene.setOnMouseMoved(new PaddleAimer(screens.getControls()));
+        playNextLevel = new AtomicBoolean();
+    }
     
-    // no setters because most fields are final and
-    // those which are not are only to be changed internally
+    // name: null for the pack's first level
+    private static BreakoutLevelData load(LevelPack pack, String name)
+    {
+        try
+        {
+            return name == null ? pack.getFirstLevel() : pack.getLevel(name);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not load level from " + pack.getSource(), e);
+        }
+    }
     
     @Override
-    public BreakoutLevel loadNextLevel();
-    public void loadState(double timeElapsed, int score, int drops, ArrayList<Block> blocks,
-                          double ballX, double ballY, double ballSpeed, double ballAngle);
+    public void draw(double timeElapsed, double alpha)
+    {
+        TraceRecorder trace = screens.getTrace();
+        boolean blank = !layers.isBackgroundDrawn();
+        if (layers.isBackgroundStale(sim.getBlockChanges())) // only when a Block is broken, or a state is loaded
+        {
+            long start = trace.start();
+            drawBlocks(blank);
+            trace.end(TraceRecorder.DRAW_BLOCKS, start);
+        }
+        layers.clearSprites();
+        renderer.setInterpolation(alpha);
+        long start = trace.start();
+        renderer.draw(sim.getPaddle());
+        trace.end(TraceRecorder.DRAW_PADDLE, start);
+        start = trace.start();
+        renderer.draw(sim.getBall());
+        trace.end(TraceRecorder.DRAW_BALLS, start);
+        start = trace.start();
+        hud.set(0, sim.getLives());
+        hud.set(1, sim.getBlocksBroken());
+        hud.set(2, sim.getBreakableBlocks());
+        hud.set(3, (long) timeElapsed);
+        hud.set(4, sim.getScore());
+        layers.drawHud(hud, Arcade.DEFAULT_TEXT_COLOR, screens.isShowingStats() ? GameLoop.STATS : null);
+        trace.end(TraceRecorder.DRAW_HUD, start);
+    }
+    
+    // draws the background layer, or with dirty rectangles, only where Blocks have gone or come back
+    // since it was last drawn
+    // blank: whether the layer is empty, e.g. for a new Level, so that all of it must be drawn
+    private void drawBlocks(boolean blank)
+    {
+        ArrayList<Block> blocks = sim.getBlocks();
+        DirtyRegion changes = layers.getBackgroundChanges();
+        changes.reset();
+        if (layers.isDirtyRects() && !blank)
+        {
+            ArrayList<Block> changed = sim.getChangedBlocks(); // broken, or taken out or put back by loading a state
+            for (int i = 0; i < changed.size(); ++i)
+            {
+                Block bl = changed.get(i);
+                changes.add(bl.getX(), bl.getY(), bl.getWidth(), bl.getThickness());
+            }
+        }
+        background.setFill(Arcade.DEFAULT_BACKGROUND_COLOR);
+        if (!layers.isDirtyRects() || blank || layers.isTooLarge(changes))
+        {
+            background.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            for (int i = 0; i < blocks.size(); ++i)
+                blockRenderer.draw(blocks.get(i));
+        }
+        else
+        {
+            // paint over where Blocks were, then put back any Block that was partly painted over
+            changes.fill(background);
+            for (int i = 0; i < blocks.size(); ++i)
+            {
+                Block bl = blocks.get(i);
+                if (changes.intersects(bl.getX(), bl.getY(), bl.getWidth(), bl.getThickness()))
+                    blockRenderer.draw(bl);
+            }
+        }
+        sim.clearChangedBlocks();
+    }
+    
+    @Override
+    public void update(double timeElapsed)
+    {
+        sim.update(timeElapsed);
+    }
+    
+    @Override
+    public boolean isOver()
+    {
+        return sim.isOver();
+    }
+    
+    @Override
+    public void printEndText()
+    {
+        if (!hasNextLevel())
+            sim.awardLifeBonus();
+        gc.setFill(Arcade.DEFAULT_TEXT_COLOR);
+        
+        // store font/text properties
+        Font temp = gc.getFont();
+        TextAlignment temp2 = gc.getTextAlign();
+        VPos temp3 = gc.getTextBaseline();
+        
+        gc.setFont(new Font(42));
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        if (sim.isComplete() && hasNextLevel())
+            gc.fillText("Complete!"
+                      + "\nYour total score is: " + sim.getScore()
+                      + "\nClick anywhere to play the next level!",
+                        canvas.getWidth()/2, canvas.getHeight()/2);
+        else
+        {
+            if (sim.isComplete())
+                gc.fillText("Congratulations for completing the final level!"
+                          + "\nYour final score is: " + sim.getScore()
+                          + "\nClick anywhere to end the game.",
+                            canvas.getWidth()/2, canvas.getHeight()/2);
+            else
+                gc.fillText("GAME OVER"
+                          + "\nYour final score is: " + sim.getScore()
+                          + "\nClick anywhere to end the game.",
+                            canvas.getWidth()/2, canvas.getHeight()/2);
+            ScoringLevel.recordScore(this, screens, pack); // only record score once the game ends
+        }
+        
+        // restore font/text properties
+        gc.setFont(temp);
+        gc.setTextAlign(temp2);
+        gc.setTextBaseline(temp3);
+    }
+    
+    @Override
+    public boolean isStandalone()
+    {
+        return false;
+    }
+    @Override
+    public boolean hasNextLevel()
+    {
+        return data.hasNext();
+    }
+    @Override
+    public void continueCheck()
+    {
+        scene.setOnMouseClicked(new EventHandler<MouseEvent>()
+        {
+            @Override
+            public void handle(MouseEvent event)
+            {
+                // only allowed to continue if Level was completed, not if all lives were lost
+                if (sim.isComplete() && hasNextLevel())
+                    playNextLevel.set(true);
+                screens.finishLevel(BreakoutLevel.this);
+            }
+        });
+    }
+    @Override
+    public AtomicBoolean playNextLevel()
+    {
+        return playNextLevel;
+    }
+    @Override
+    public BreakoutLevel loadNextLevel()
+    {
+        if (!hasNextLevel())
+            throw new UnsupportedOperationException("This level has no next level.");
+        BreakoutSimulation nextSim;
+        try
+        {
+            nextSim = next.get(); // almost always finished long before the player gets here
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new IllegalStateException("Could not load level " + data.getNext() + " from " + pack.getSource(), e);
+        }
+        nextSim.carryOver(sim.getScore(), sim.getNextLives());
+        return new BreakoutLevel(screens, pack, load(pack, data.getNext()), nextSim); // already read by the preloader
+    }
+    
+    @Override
+    public Snapshot snapshot() throws IOException
+    {
+        return Snapshot.take(GameRun.BREAKOUT, data.getLevelNum(), sim, screens.getLoop().getTicks());
+    }
+    @Override
+    public void restore(Snapshot snapshot) throws IOException
+    {
+        snapshot.restore(GameRun.BREAKOUT, data.getLevelNum(), sim);
+        screens.getLoop().setTicks(snapshot.getTicks());
+    }
+    
+    @Override
+    public int getHighScoreGameNum()
+    {
+        return HIGH_SCORE_GAME_NUM;
+    }
+    @Override
+    public int getLevelNum()
+    {
+        return data.getLevelNum();
+    }
+    @Override
+    public int getScore()
+    {
+        return sim.getScore();
+    }
+    @Override
+    public BreakoutSimulation getSimulation()
+    {
+        return sim;
+    }
+    public BreakoutLevelData getData()
+    {
+        return data;
+    }
+    public LevelPack getPack()
+    {
+        return pack;
+    }
+    public ScreenManager getScreens()
+    {
+        return screens;
+    }
+    public Canvas getCanvas()
+    {
+        return canvas;
+    }
+    public Scene getScene()
+    {
+        return scene;
+    }
+    public ArrayList<Block> getBlocks()
+    {
+        return sim.getBlocks();
+    }
+    public Paddle getPaddle()
+    {
+        return sim.getPaddle();
+    }
+    public Ball getBall()
+    {
+        return sim.getBall();
+    }
+    public int getTotalBlocks()
+    {
+        return sim.getTotalBlocks();
+    }
+    public int getBlocksBroken()
+    {
+        return sim.getBlocksBroken();
+    }
+    public int getDrops()
+    {
+        return sim.getDrops();
+    }
+    public int getLives()
+    {
+        return sim.getLives();
+    }
 }
\ No newline at end of file
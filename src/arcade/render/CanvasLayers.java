@@ -0,0 +1,172 @@
+package arcade.render;
+
+import arcade.sim.FrameStats;
+import arcade.sim.World;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Paint;
+
+/**
+ * The game canvas, split into three layers stacked on top of each other and put together by the window.
+ * The background layer holds the background color and anything that doesn't move, such as Blocks,
+ * and is only redrawn when that changes. The sprite layer is cleared and redrawn every frame with the
+ * Balls and Paddle. The HUD layer holds the Level's text, and the frame timing overlay while it's shown,
+ * and is only redrawn when the text changes.
+ * So an ordinary frame only draws what moves, however many Blocks a level has.
+ * With dirty rectangles on, for slow graphics hardware, the sprite layer isn't cleared in full either:
+ * only where sprites were drawn last frame, as kept in a DirtyRegion, and Levels can repaint
+ * just the parts of the background that changed. Once the area to repaint passes FULL_REPAINT_AREA
+ * of the canvas, or is in too many pieces, the whole layer is repainted instead, which is cheaper by then.
+ * @author Kevin
+ */
+public class CanvasLayers
+{
+    public static final double TEXT_X = 0;
+    public static final double TEXT_Y = 10;
+    public static final double FULL_REPAINT_AREA = 0.25; // fraction of the canvas
+    
+    private final Canvas background;
+    private final Canvas sprites;
+    private final Canvas hud;
+    private final StackPane pane;
+    private boolean dirtyRects;
+    private final DirtyRegion drawnSprites; // what the sprite layer shows, as recorded by its SpriteRenderers
+    private boolean spritesUnknown; // true when the sprite layer may show things drawnSprites doesn't cover
+    private final DirtyRegion backgroundChanges; // parts of the background layer a Level is repainting
+    private boolean backgroundDrawn;
+    private long backgroundKey; // what the background layer shows
+    private HudText hudText; // what the HUD layer shows, null if nothing yet
+    private int hudVersion;
+    private Paint hudColor;
+    private boolean hudStats;
+    private final StatsOverlay statsOverlay;
+    private int statsVersion; // of the overlay the HUD layer shows
+    
+    public CanvasLayers()
+    {
+        background = new Canvas();
+        sprites = new Canvas();
+        hud = new Canvas();
+        pane = new StackPane(background, sprites, hud);
+        dirtyRects = false;
+        drawnSprites = new DirtyRegion();
+        spritesUnknown = true;
+        backgroundChanges = new DirtyRegion();
+        statsOverlay = new StatsOverlay();
+    }
+    
+    // when on, only the parts of each layer that change are repainted
+    public void setDirtyRects(boolean dirtyRects)
+    {
+        this.dirtyRects = dirtyRects;
+        invalidate();
+    }
+    public boolean isDirtyRects()
+    {
+        return dirtyRects;
+    }
+    
+    public void setSize(double width, double height)
+    {
+        background.setWidth(width);
+        background.setHeight(height);
+        sprites.setWidth(width);
+        sprites.setHeight(height);
+        hud.setWidth(width);
+        hud.setHeight(height);
+        invalidate();
+    }
+    
+    // forgets what the background and HUD layers show, so the next frame redraws them, e.g. when a Level starts
+    public void invalidate()
+    {
+        backgroundDrawn = false;
+        hudText = null;
+        spritesUnknown = true;
+    }
+    
+    // whether anything is on the background layer, so that a change to it can be repainted in part;
+    // asked before isBackgroundStale, which counts the layer as drawn
+    public boolean isBackgroundDrawn()
+    {
+        return backgroundDrawn;
+    }
+    // whether the background layer has to be drawn again to show the given state,
+    // e.g. the number of changes to the Blocks; if so, the caller draws all of it straight away
+    public boolean isBackgroundStale(long key)
+    {
+        if (backgroundDrawn && key == backgroundKey)
+            return false;
+        backgroundDrawn = true;
+        backgroundKey = key;
+        return true;
+    }
+    
+    // clears the sprite layer for the next frame
+    public void clearSprites()
+    {
+        GraphicsContext gc = sprites.getGraphicsContext2D();
+        if (dirtyRects && !spritesUnknown && !isTooLarge(drawnSprites))
+            drawnSprites.clear(gc);
+        else
+            gc.clearRect(0, 0, sprites.getWidth(), sprites.getHeight());
+        drawnSprites.reset();
+        spritesUnknown = false;
+    }
+    // whether repainting the region would cost more than repainting the whole canvas
+    public boolean isTooLarge(DirtyRegion region)
+    {
+        return region.isOverflowed() || region.getArea() > FULL_REPAINT_AREA*sprites.getWidth()*sprites.getHeight();
+    }
+    
+    // shows the Level's text in the top left corner, and the frame timing overlay beside it if stats isn't null
+    // text: the Level's HudText, only drawn again once one of its numbers, or the overlay's, has changed
+    public void drawHud(HudText text, Paint color, FrameStats stats)
+    {
+        if (stats != null)
+            statsOverlay.update(stats);
+        if (text == hudText && text.getVersion() == hudVersion && color == hudColor && (stats != null) == hudStats
+            && (stats == null || statsOverlay.getVersion() == statsVersion))
+            return;
+        GraphicsContext gc = hud.getGraphicsContext2D();
+        gc.clearRect(0, 0, hud.getWidth(), hud.getHeight());
+        gc.setFill(color);
+        text.draw(gc, TEXT_X, TEXT_Y);
+        if (stats != null)
+            statsOverlay.draw(gc, TEXT_X + World.HORIZ_TEXT_SPACE, TEXT_Y);
+        hudText = text;
+        hudVersion = text.getVersion();
+        hudColor = color;
+        hudStats = stats != null;
+        statsVersion = statsOverlay.getVersion();
+    }
+    
+    public Canvas getBackground()
+    {
+        return background;
+    }
+    // where the sprites drawn this frame are, for the sprite layer's SpriteRenderer to record into
+    public DirtyRegion getDrawnSprites()
+    {
+        return drawnSprites;
+    }
+    // where a Level collects the parts of the background it's about to repaint
+    public DirtyRegion getBackgroundChanges()
+    {
+        return backgroundChanges;
+    }
+    public Canvas getSprites()
+    {
+        return sprites;
+    }
+    public Canvas getHud()
+    {
+        return hud;
+    }
+    // the node the layers are shown in
+    public StackPane getPane()
+    {
+        return pane;
+    }
+}
\ No newline at end of file
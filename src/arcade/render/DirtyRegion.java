@@ -0,0 +1,109 @@
+package arcade.render;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * The parts of a canvas layer that need repainting, kept as a few rectangles.
+ * Rectangles are grown to whole pixels with a pixel to spare for antialiased edges, and any that overlap
+ * are merged into the one rectangle around both, so nothing is painted twice.
+ * Past MAX_RECTS rectangles the region stops keeping track and counts as overflowed,
+ * which callers treat as needing the whole layer repainted.
+ * Adding to and painting a region never allocates.
+ * @author Kevin
+ */
+public class DirtyRegion
+{
+    public static final int MAX_RECTS = 32;
+    public static final double PADDING = 1;
+    
+    private final double[] rects; // min x, min y, max x, max y of each rectangle
+    private int count;
+    private boolean overflowed;
+    
+    public DirtyRegion()
+    {
+        rects = new double[4*MAX_RECTS];
+    }
+    
+    // empties the region
+    public void reset()
+    {
+        count = 0;
+        overflowed = false;
+    }
+    
+    public void add(double x, double y, double width, double height)
+    {
+        if (overflowed)
+            return;
+        double minX = Math.floor(x) - PADDING;
+        double minY = Math.floor(y) - PADDING;
+        double maxX = Math.ceil(x + width) + PADDING;
+        double maxY = Math.ceil(y + height) + PADDING;
+        for (int i = 0; i < count; )
+        {
+            int j = 4*i;
+            if (minX <= rects[j + 2] && rects[j] <= maxX && minY <= rects[j + 3] && rects[j + 1] <= maxY)
+            {
+                // take the overlapping rectangle into this one, then check the rest again since this one grew
+                minX = Math.min(minX, rects[j]);
+                minY = Math.min(minY, rects[j + 1]);
+                maxX = Math.max(maxX, rects[j + 2]);
+                maxY = Math.max(maxY, rects[j + 3]);
+                --count;
+                System.arraycopy(rects, 4*count, rects, j, 4);
+                i = 0;
+            }
+            else
+                ++i;
+        }
+        if (count == MAX_RECTS)
+        {
+            overflowed = true;
+            return;
+        }
+        int j = 4*count++;
+        rects[j] = minX;
+        rects[j + 1] = minY;
+        rects[j + 2] = maxX;
+        rects[j + 3] = maxY;
+    }
+    
+    // whether any part of the region overlaps the given rectangle
+    public boolean intersects(double x, double y, double width, double height)
+    {
+        for (int j = 0; j < 4*count; j += 4)
+            if (x <= rects[j + 2] && rects[j] <= x + width && y <= rects[j + 3] && rects[j + 1] <= y + height)
+                return true;
+        return false;
+    }
+    
+    // makes the region transparent
+    public void clear(GraphicsContext gc)
+    {
+        for (int j = 0; j < 4*count; j += 4)
+            gc.clearRect(rects[j], rects[j + 1], rects[j + 2] - rects[j], rects[j + 3] - rects[j + 1]);
+    }
+    // paints the region in the current fill color
+    public void fill(GraphicsContext gc)
+    {
+        for (int j = 0; j < 4*count; j += 4)
+            gc.fillRect(rects[j], rects[j + 1], rects[j + 2] - rects[j], rects[j + 3] - rects[j + 1]);
+    }
+    
+    public double getArea()
+    {
+        double area = 0;
+        for (int j = 0; j < 4*count; j += 4)
+            area += (rects[j + 2] - rects[j])*(rects[j + 3] - rects[j + 1]);
+        return area;
+    }
+    public int getCount()
+    {
+        return count;
+    }
+    public boolean isOverflowed()
+    {
+        return overflowed;
+    }
+}
\ No newline at end of file
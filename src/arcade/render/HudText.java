@@ -0,0 +1,145 @@
+package arcade.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * The text in the top left corner of a Level: a label before each number, e.g. "Lives: 3".
+ * A number may be shown with a fixed count of decimals, e.g. frame times in milliseconds.
+ * Nothing is built when a number changes: the labels are drawn as they are and each number one digit
+ * at a time, from a reused buffer of its digits, so the text never allocates once it's on screen.
+ * Where each piece goes is worked out from the widths of the labels and digits, measured once per font.
+ * @author Kevin
+ */
+public class HudText
+{
+    private static final String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+    private static final String MINUS = "-";
+    private static final String POINT = ".";
+
+    private final String[] labels; // without their line breaks
+    private final int[] lineBreaks; // before each label
+    private final long[] values;
+    private final int[] decimals; // digits after the point, for each number
+    private final char[] digits; // of the number being drawn, last digit first
+    private int version;
+    private Font font; // what the widths are measured in, null until first drawn
+    private final double[] labelWidths;
+    private final double[] digitWidths;
+    private double minusWidth;
+    private double pointWidth;
+    private double lineHeight;
+
+    // labels: the text before each number; line breaks may only come at the start of a label
+    public HudText(String... labels)
+    {
+        this.labels = new String[labels.length];
+        lineBreaks = new int[labels.length];
+        for (int i = 0; i < labels.length; ++i)
+        {
+            int breaks = 0;
+            while (breaks < labels[i].length() && labels[i].charAt(breaks) == '\n')
+                ++breaks;
+            if (labels[i].indexOf('\n', breaks) >= 0)
+                throw new IllegalArgumentException("Line breaks must come before the rest of label " + i);
+            this.labels[i] = labels[i].substring(breaks);
+            lineBreaks[i] = breaks;
+        }
+        values = new long[labels.length];
+        decimals = new int[labels.length];
+        digits = new char[20]; // enough for any long
+        labelWidths = new double[labels.length];
+        digitWidths = new double[DIGITS.length];
+    }
+
+    // sets the number after the i-th label
+    public void set(int i, long value)
+    {
+        set(i, value, 0);
+    }
+    // sets the number after the i-th label, shown with that many digits after the point, e.g. 1234 with 3 as 1.234
+    public void set(int i, long value, int decimals)
+    {
+        if (values[i] != value || this.decimals[i] != decimals)
+        {
+            values[i] = value;
+            this.decimals[i] = decimals;
+            ++version;
+        }
+    }
+
+    // draws in the current fill color and font with the first line's baseline at y, as fillText would
+    public void draw(GraphicsContext gc, double x, double y)
+    {
+        if (gc.getFont() != font)
+            measure(gc.getFont());
+        double textX = x;
+        double textY = y;
+        for (int i = 0; i < labels.length; ++i)
+        {
+            if (lineBreaks[i] > 0)
+            {
+                textX = x;
+                textY += lineBreaks[i]*lineHeight;
+            }
+            gc.fillText(labels[i], textX, textY);
+            textX += labelWidths[i];
+
+            long value = values[i];
+            if (value < 0)
+            {
+                gc.fillText(MINUS, textX, textY);
+                textX += minusWidth;
+            }
+            int count = 0;
+            do
+            {
+                digits[count++] = (char) ('0' + Math.abs(value % 10));
+                value /= 10;
+            }
+            while (value != 0 || count <= decimals[i]); // a zero before the point, e.g. 0.005
+            while (count > 0)
+            {
+                if (count == decimals[i])
+                {
+                    gc.fillText(POINT, textX, textY);
+                    textX += pointWidth;
+                }
+                int d = digits[--count] - '0';
+                gc.fillText(DIGITS[d], textX, textY);
+                textX += digitWidths[d];
+            }
+        }
+    }
+
+    // widths are measured between two digits, so a label's trailing space counts
+    private void measure(Font font)
+    {
+        this.font = font;
+        Text text = new Text();
+        text.setFont(font);
+        double pair = width(text, "00");
+        for (int i = 0; i < labels.length; ++i)
+            labelWidths[i] = width(text, "0" + labels[i] + "0") - pair;
+        for (int d = 0; d < DIGITS.length; ++d)
+            digitWidths[d] = width(text, "0" + DIGITS[d] + "0") - pair;
+        minusWidth = width(text, "0" + MINUS + "0") - pair;
+        pointWidth = width(text, "0" + POINT + "0") - pair;
+        text.setText("0");
+        double line = text.getLayoutBounds().getHeight();
+        text.setText("0\n0");
+        lineHeight = text.getLayoutBounds().getHeight() - line;
+    }
+    private static double width(Text text, String s)
+    {
+        text.setText(s);
+        return text.getLayoutBounds().getWidth();
+    }
+
+    // changes whenever a number does, so whatever shows this text knows when to draw it again
+    public int getVersion()
+    {
+        return version;
+    }
+}
\ No newline at end of file
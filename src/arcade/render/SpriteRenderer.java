@@ -0,0 +1,78 @@
+package arcade.render;
+
+import arcade.sim.World;
+import arcade.sprite.Ball;
+import arcade.sprite.Block;
+import arcade.sprite.Paddle;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws sprites onto a canvas.
+ * Sprites only hold game state, so this is the only place that knows what they look like.
+ * Each sprite is drawn in its own color, left as the fill color afterwards; the canvas skips setting
+ * the color it already has, so drawing many sprites of one kind in a row only sets it once.
+ * Moving sprites can also be recorded into a DirtyRegion as they're drawn, so only they are cleared next frame.
+ * @author Kevin
+ */
+public class SpriteRenderer
+{
+    // default sprite colors
+    public static final Color BALL_COLOR = Color.ORANGE;
+    public static final Color PADDLE_COLOR = Color.STEELBLUE;
+    public static final Color BLOCK_COLOR = Color.STEELBLUE;
+    public static final Color UNBREAKABLE_BLOCK_COLOR = Color.GREY;
+    
+    private final GraphicsContext gc;
+    private double alpha; // how far between the previous and current update to draw moving sprites
+    private DirtyRegion drawn; // null unless the bounds of Balls and Paddles drawn are recorded
+    
+    public SpriteRenderer(GraphicsContext gc)
+    {
+        this.gc = gc;
+        alpha = 1;
+    }
+    
+    // records where every Ball and Paddle is drawn from now on into drawn, or stops if it's null
+    public void setDrawnRegion(DirtyRegion drawn)
+    {
+        this.drawn = drawn;
+    }
+    
+    // set once per frame by the Level, from 0 (previous update) to 1 (latest update)
+    public void setInterpolation(double alpha)
+    {
+        this.alpha = alpha;
+    }
+    
+    public void draw(Ball b)
+    {
+        double x = b.getPrevX() + (b.getX() - b.getPrevX())*alpha;
+        double y = b.getPrevY() + (b.getY() - b.getPrevY())*alpha;
+        if (y > World.VERT_TEXT_SPACE || x > World.HORIZ_TEXT_SPACE) // space allocated to Level text
+        {
+            gc.setFill(BALL_COLOR);
+            gc.fillOval(x, y, 2*b.getRadius(), 2*b.getRadius());
+            if (drawn != null)
+                drawn.add(x, y, 2*b.getRadius(), 2*b.getRadius());
+        }
+    }
+    public void draw(Paddle p)
+    {
+        double x = p.getPrevX() + (p.getX() - p.getPrevX())*alpha;
+        gc.setFill(PADDLE_COLOR);
+        gc.fillRect(x, p.getY(), p.getWidth(), p.getThickness());
+        if (drawn != null)
+            drawn.add(x, p.getY(), p.getWidth(), p.getThickness());
+    }
+    public void draw(Block bl)
+    {
+        gc.setFill(bl.isBreakable() ? BLOCK_COLOR : UNBREAKABLE_BLOCK_COLOR);
+        gc.fillRect(bl.getX(), bl.getY(), bl.getWidth(), bl.getThickness());
+    }
+    
+    public GraphicsContext getGraphicsContext()
+    {
+        return gc;
+    }
+}
@@ -0,0 +1,77 @@
+package arcade.render;
+
+import arcade.sim.FrameStats;
+import arcade.sim.LatencyHistogram;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Draws the frame timing overlay, toggled with F3, beside a Level's own text.
+ * Timings are shown in milliseconds as p50/p99/max since the overlay was last cleared.
+ * The numbers are read again only a few times a second, which is as fast as they can be read anyway,
+ * and drawn as HudText, so while the overlay is shown it allocates nothing and the HUD is seldom redrawn.
+ * @author Kevin
+ */
+public class StatsOverlay
+{
+    public static final long REFRESH_NANOS = 250_000_000L;
+    private static final int RATE_DECIMALS = 1;
+    private static final int TIME_DECIMALS = 3; // milliseconds to the microsecond
+    // where each group of numbers starts in the text
+    private static final int RATES = 0;
+    private static final int COUNTS = 2;
+    private static final int UPDATE = 5;
+    private static final int DRAW = 8;
+    private static final int LEVEL_END = 11;
+    private static final int FRAME_GAP = 14;
+    
+    private final HudText text;
+    private long lastRefresh;
+    private boolean refreshed; // false until the numbers are first read
+    
+    public StatsOverlay()
+    {
+        text = new HudText("FPS: ", "   Ticks/s: ",
+                           "\nBalls: ", "   Blocks: ", "   Collision tests/tick: ",
+                           "\nUpdate (ms): ", "/", "/",
+                           "\nDraw (ms): ", "/", "/",
+                           "\nLevel end (ms): ", "/", "/",
+                           "\nFrame gap (ms): ", "/", "/");
+    }
+    
+    // reads the numbers from stats again once REFRESH_NANOS have passed since they last were
+    public void update(FrameStats stats)
+    {
+        long now = System.nanoTime();
+        if (refreshed && now - lastRefresh < REFRESH_NANOS)
+            return;
+        refreshed = true;
+        lastRefresh = now;
+        text.set(RATES, Math.round(stats.getFrameRate()*10), RATE_DECIMALS);
+        text.set(RATES + 1, Math.round(stats.getTickRate()*10), RATE_DECIMALS);
+        text.set(COUNTS, stats.getBalls());
+        text.set(COUNTS + 1, stats.getBlocks());
+        text.set(COUNTS + 2, stats.getCollisionTests());
+        setTimes(UPDATE, stats.getUpdate());
+        setTimes(DRAW, stats.getDraw());
+        setTimes(LEVEL_END, stats.getLevelEnd());
+        setTimes(FRAME_GAP, stats.getFrameGap());
+    }
+    private void setTimes(int i, LatencyHistogram times)
+    {
+        text.set(i, Math.round(times.getPercentile(50) / 1e3), TIME_DECIMALS);
+        text.set(i + 1, Math.round(times.getPercentile(99) / 1e3), TIME_DECIMALS);
+        text.set(i + 2, Math.round(times.getMax() / 1e3), TIME_DECIMALS);
+    }
+    
+    // draws in the current fill color with the first line's baseline at x, y, as fillText would
+    public void draw(GraphicsContext gc, double x, double y)
+    {
+        text.draw(gc, x, y);
+    }
+    
+    // changes whenever a number shown does
+    public int getVersion()
+    {
+        return text.getVersion();
+    }
+}
\ No newline at end of file
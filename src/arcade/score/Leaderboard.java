@@ -0,0 +1,128 @@
+package arcade.score;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * The text of the High Scores window, kept ready in memory.
+ * It is built once from every game mode's ScoreStore, rebuilt whenever a store's rankings change,
+ * and a watcher thread reloads a store when another process changes its files.
+ * Getting the text never touches the disk.
+ * @author Kevin
+ */
+public class Leaderboard
+{
+    private final String[] gameModes;
+    private final ScoreStore[] stores;
+    private final String[] sections; // cached text for each game mode
+    private volatile String text;
+    private WatchService watcher;
+
+    public Leaderboard(String[] gameModes, ScoreStore[] stores)
+    {
+        this.gameModes = gameModes;
+        this.stores = stores;
+        sections = new String[stores.length];
+        for (int i = 0; i < stores.length; ++i)
+            sections[i] = buildSection(i);
+        text = join();
+        for (int i = 0; i < stores.length; ++i)
+        {
+            final int gameNum = i;
+            stores[i].addListener(() -> update(gameNum));
+        }
+    }
+
+    public String getText()
+    {
+        return text;
+    }
+
+    // starts watching the directory holding the high score files for changes made by other processes
+    public void startWatching() throws IOException
+    {
+        File dir = stores[0].getJournalFile().getAbsoluteFile().getParentFile();
+        watcher = FileSystems.getDefault().newWatchService();
+        dir.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                              StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.OVERFLOW);
+        Thread thread = new Thread(this::watch, "High score watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() throws IOException
+    {
+        if (watcher != null)
+            watcher.close();
+    }
+
+    private void watch()
+    {
+        try
+        {
+            while (true)
+            {
+                WatchKey key = watcher.take();
+                boolean[] changed = new boolean[stores.length];
+                for (WatchEvent<?> event : key.pollEvents())
+                {
+                    String name = event.kind() == StandardWatchEventKinds.OVERFLOW ? null : ((Path) event.context()).toString();
+                    for (int i = 0; i < stores.length; ++i)
+                        if (name == null || name.equals(stores[i].getJournalFile().getName())
+                                         || name.equals(stores[i].getSnapshotFile().getName()))
+                            changed[i] = true;
+                }
+                key.reset();
+
+                // a store only reloads if the files differ from what it last wrote or read itself
+                for (int i = 0; i < stores.length; ++i)
+                    if (changed[i])
+                    {
+                        try
+                        {
+                            stores[i].refreshIfChanged();
+                        }
+                        catch (IOException e)
+                        {
+                            System.err.println("Could not reload high scores from " + stores[i].getTextFile() + ": " + e);
+                        }
+                    }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException e)
+        { // watcher closed
+        }
+    }
+
+    private synchronized void update(int gameNum)
+    {
+        sections[gameNum] = buildSection(gameNum);
+        text = join();
+    }
+
+    private String buildSection(int gameNum)
+    {
+        StringBuilder txt = new StringBuilder();
+        txt.append(gameModes[gameNum]).append('\n');
+        List<ScoreEntry> scores = stores[gameNum].getTopScores();
+        for (int i = 0; i < scores.size(); ++i)
+            txt.append(i + 1).append(". ").append(scores.get(i).toLine()).append('\n');
+        return txt.toString();
+    }
+
+    private String join()
+    {
+        StringBuilder txt = new StringBuilder();
+        for (String section : sections)
+            txt.append(section).append('\n'); // line separator between game modes
+        return txt.toString();
+    }
+}
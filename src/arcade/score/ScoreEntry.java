@@ -0,0 +1,51 @@
+package arcade.score;
+
+/**
+ * One ranked high score held by a ScoreStore.
+ * Unused ranks hold placeholder entries with a score of 0, as in the high score template.
+ * @author Kevin
+ */
+public class ScoreEntry
+{
+    public static final ScoreEntry PLACEHOLDER = new ScoreEntry(0, 0, 0, true);
+    
+    private final long seq; // order in which scores were recorded, used to replay the journal exactly once
+    private final int score;
+    private final int levelNum;
+    private final boolean standalone;
+    
+    public ScoreEntry(long seq, int score, int levelNum, boolean standalone)
+    {
+        this.seq = seq;
+        this.score = score;
+        this.levelNum = levelNum;
+        this.standalone = standalone;
+    }
+    
+    // the text following the rank on a high score line, e.g. "6100 : Level 4"
+    public String toLine()
+    {
+        return standalone ? Integer.toString(score) : score + " : Level " + levelNum;
+    }
+    
+    public boolean isPlaceholder()
+    {
+        return levelNum == 0;
+    }
+    public long getSeq()
+    {
+        return seq;
+    }
+    public int getScore()
+    {
+        return score;
+    }
+    public int getLevelNum()
+    {
+        return levelNum;
+    }
+    public boolean isStandalone()
+    {
+        return standalone;
+    }
+}
@@ -0,0 +1,38 @@
+package arcade.score;
+
+/**
+ * A finished game's score, waiting to be recorded in its game mode's ScoreStore.
+ * @author Kevin
+ */
+public class ScoreRecord
+{
+    private final ScoreStore store;
+    private final int score;
+    private final int levelNum;
+    private final boolean standalone;
+    
+    public ScoreRecord(ScoreStore store, int score, int levelNum, boolean standalone)
+    {
+        this.store = store;
+        this.score = score;
+        this.levelNum = levelNum;
+        this.standalone = standalone;
+    }
+    
+    public ScoreStore getStore()
+    {
+        return store;
+    }
+    public int getScore()
+    {
+        return score;
+    }
+    public int getLevelNum()
+    {
+        return levelNum;
+    }
+    public boolean isStandalone()
+    {
+        return standalone;
+    }
+}
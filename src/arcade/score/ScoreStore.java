@@ -0,0 +1,497 @@
+package arcade.score;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * Crash-safe storage for one game mode's high scores.
+ *
+ * Every recorded score is appended to a journal as a checksummed record and forced to disk.
+ * Once enough records build up, the current rankings are compacted into a snapshot, which is
+ * written to a temporary file and renamed over the old one, and the journal is emptied.
+ * Opening a store loads the snapshot and replays any journal records newer than it, stopping
+ * at the first torn or corrupt record, so a crash at any point loses at most the score being written.
+ *
+ * Several processes can share a store's files. Every change is made while holding a lock on a
+ * separate lock file, and first merges in whatever other processes saved since this store last
+ * looked, so no score is lost or given a sequence number that is already used.
+ * Each process should open only one store per text file.
+ *
+ * Rankings are kept in memory, both overall and per level, so reading them never touches the disk.
+ * The text file shown to players is rewritten (also by rename) whenever the rankings change,
+ * and listeners are told so they can update anything built from the rankings.
+ * @author Kevin
+ */
+public class ScoreStore
+{
+    public static final String SNAPSHOT_SUFFIX = ".snapshot";
+    public static final String JOURNAL_SUFFIX = ".journal";
+    public static final String LOCK_SUFFIX = ".lock";
+    public static final int COMPACT_THRESHOLD = 64; // journal records before compacting
+
+    private static final int SNAPSHOT_MAGIC = 0x41534E50; // "ASNP"
+    private static final byte VERSION = 1;
+    private static final int RECORD_SIZE = 1 + 8 + 4 + 4 + 1 + 4; // version, seq, score, level, standalone, crc
+    private static final int ENTRY_SIZE = 8 + 4 + 4 + 1;
+
+    private final File textFile;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File lockFile;
+    private final int capacity;
+    private final FileChannel journal;
+    private final FileChannel lock;
+    private final ArrayList<ScoreEntry> topScores; // always exactly capacity entries, padded with placeholders
+    private final TreeMap<Integer, ArrayList<ScoreEntry>> levelScores; // up to capacity entries per level
+    private final CopyOnWriteArrayList<Runnable> listeners;
+    private long lastSeq;
+    private int journalRecords;
+    private long snapshotSeq; // what this store last saw on disk, to tell when another process changed the files
+    private long knownJournalSize;
+
+    // opens the store for the given text file, e.g. "Breakout High Scores.txt",
+    // keeping the given number of ranks
+    public ScoreStore(File textFile, int capacity) throws IOException
+    {
+        this.textFile = textFile;
+        snapshotFile = new File(textFile.getPath() + SNAPSHOT_SUFFIX);
+        journalFile = new File(textFile.getPath() + JOURNAL_SUFFIX);
+        lockFile = new File(textFile.getPath() + LOCK_SUFFIX);
+        this.capacity = capacity;
+        topScores = new ArrayList<>(Collections.nCopies(capacity, ScoreEntry.PLACEHOLDER));
+        levelScores = new TreeMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+        lastSeq = 0;
+        journalRecords = 0;
+        snapshotSeq = -1;
+        knownJournalSize = 0;
+
+        lock = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock l = lock.lock();
+        try
+        {
+            if (snapshotFile.exists())
+                readSnapshot();
+            else if (textFile.exists())
+                importText(); // scores from before the store existed
+            replayJournal(0, true);
+            if (journalRecords > 0 || !snapshotFile.exists())
+                writeSnapshot();
+            else
+                writeText();
+        }
+        finally
+        {
+            l.release();
+        }
+    }
+
+    // called on the thread that changed the rankings, after every change
+    public void addListener(Runnable listener)
+    {
+        listeners.add(listener);
+    }
+
+    // reloads the rankings if another process has changed this store's files since this store last saw them
+    // returns whether anything was reloaded
+    public boolean refreshIfChanged() throws IOException
+    {
+        synchronized (this)
+        {
+            if (!journal.isOpen())
+                return false;
+            FileLock l = lock.lock(0, Long.MAX_VALUE, true); // only reading, so other readers can go ahead
+            try
+            {
+                if (!merge(false))
+                    return false;
+            }
+            finally
+            {
+                l.release();
+            }
+        }
+        notifyListeners();
+        return true;
+    }
+
+    // appends every given score to the journal, forcing it to disk once for the whole batch
+    public void recordAll(List<ScoreRecord> records) throws IOException
+    {
+        if (commit(records))
+            notifyListeners();
+    }
+    private synchronized boolean commit(List<ScoreRecord> records) throws IOException
+    {
+        FileLock l = lock.lock();
+        try
+        {
+            // scores other processes saved come first, so sequence numbers stay unique
+            boolean changed = merge(true);
+            return append(records) || changed;
+        }
+        finally
+        {
+            l.release();
+        }
+    }
+    private boolean append(List<ScoreRecord> records) throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * records.size());
+        ArrayList<ScoreEntry> entries = new ArrayList<>(records.size());
+        for (ScoreRecord r : records)
+        {
+            ScoreEntry e = new ScoreEntry(lastSeq + entries.size() + 1, r.getScore(), r.getLevelNum(), r.isStandalone());
+            writeRecord(buf, e);
+            entries.add(e);
+        }
+        buf.flip();
+        long pos = journal.size();
+        while (buf.hasRemaining())
+            pos += journal.write(buf, pos);
+        journal.force(false);
+        knownJournalSize = pos;
+
+        // only change rankings once the scores are safely on disk
+        boolean changed = false;
+        for (ScoreEntry e : entries)
+            changed |= apply(e);
+        journalRecords += entries.size();
+        if (journalRecords >= COMPACT_THRESHOLD)
+            writeSnapshot();
+        else if (changed)
+            writeText();
+        return changed;
+    }
+
+    // rankings for the whole game mode, including placeholders for unused ranks
+    public synchronized List<ScoreEntry> getTopScores()
+    {
+        return new ArrayList<>(topScores);
+    }
+    // rankings for a single level, without placeholders
+    public synchronized List<ScoreEntry> getTopScores(int levelNum)
+    {
+        ArrayList<ScoreEntry> scores = levelScores.get(levelNum);
+        return scores == null ? new ArrayList<>() : new ArrayList<>(scores);
+    }
+    public int getCapacity()
+    {
+        return capacity;
+    }
+    public File getTextFile()
+    {
+        return textFile;
+    }
+    public File getSnapshotFile()
+    {
+        return snapshotFile;
+    }
+    public File getJournalFile()
+    {
+        return journalFile;
+    }
+
+    // writes the rankings, including anything other processes saved, to a new snapshot and empties the journal
+    public void compact() throws IOException
+    {
+        boolean changed;
+        synchronized (this)
+        {
+            FileLock l = lock.lock();
+            try
+            {
+                changed = merge(true);
+                writeSnapshot();
+            }
+            finally
+            {
+                l.release();
+            }
+        }
+        if (changed)
+            notifyListeners();
+    }
+
+    public synchronized void close() throws IOException
+    {
+        if (journal.isOpen())
+        {
+            FileLock l = lock.lock();
+            try
+            {
+                merge(true);
+                if (journalRecords > 0)
+                    writeSnapshot();
+            }
+            finally
+            {
+                l.release();
+            }
+            journal.close();
+            lock.close();
+        }
+    }
+
+    // brings the rankings up to date with whatever other processes saved since this store last looked
+    // exclusive: whether the lock is held exclusively, so the journal can be repaired and the text file rewritten
+    // returns whether the rankings may have changed
+    private boolean merge(boolean exclusive) throws IOException
+    {
+        long seq = readSnapshotSeq();
+        long size = journal.size();
+        if (seq == snapshotSeq && size == knownJournalSize)
+            return false;
+        if (seq != snapshotSeq || size < knownJournalSize)
+        { // another process compacted or repaired the journal, so start over from the files
+            Collections.fill(topScores, ScoreEntry.PLACEHOLDER);
+            levelScores.clear();
+            lastSeq = 0;
+            journalRecords = 0;
+            snapshotSeq = -1;
+            if (snapshotFile.exists())
+                readSnapshot();
+            replayJournal(0, exclusive);
+            if (exclusive)
+                writeText();
+            return true;
+        }
+        // only new records were appended
+        boolean changed = replayJournal(knownJournalSize, exclusive);
+        if (changed && exclusive)
+            writeText();
+        return changed;
+    }
+
+    // must hold the lock exclusively
+    private void writeSnapshot() throws IOException
+    {
+        // every entry still ranked somewhere
+        ArrayList<ScoreEntry> kept = new ArrayList<>();
+        for (ScoreEntry e : topScores)
+            if (!e.isPlaceholder())
+                kept.add(e);
+        for (ArrayList<ScoreEntry> scores : levelScores.values())
+            for (ScoreEntry e : scores)
+                if (!kept.contains(e))
+                    kept.add(e);
+
+        ByteBuffer buf = ByteBuffer.allocate(4 + 1 + 8 + 4 + kept.size()*ENTRY_SIZE + 4);
+        buf.putInt(SNAPSHOT_MAGIC).put(VERSION).putLong(lastSeq).putInt(kept.size());
+        for (ScoreEntry e : kept)
+            buf.putLong(e.getSeq()).putInt(e.getScore()).putInt(e.getLevelNum()).put((byte)(e.isStandalone() ? 1 : 0));
+        buf.putInt(crc(buf.array(), 0, buf.position()));
+        buf.flip();
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp))
+        {
+            out.getChannel().write(buf);
+            out.getChannel().force(true);
+        }
+        replace(temp, snapshotFile);
+
+        // the snapshot now holds everything in the journal
+        journal.truncate(0);
+        journal.force(true);
+        snapshotSeq = lastSeq;
+        knownJournalSize = 0;
+        journalRecords = 0;
+        writeText();
+    }
+
+    private void notifyListeners()
+    {
+        for (Runnable listener : listeners)
+            listener.run();
+    }
+
+    // adds a score to the rankings; returns whether any ranking changed
+    private boolean apply(ScoreEntry e)
+    {
+        lastSeq = Math.max(lastSeq, e.getSeq());
+        boolean changed = false;
+
+        // new score goes above the first lower score, moving the rest down
+        for (int i = 0; i < topScores.size(); ++i)
+            if (e.getScore() > topScores.get(i).getScore())
+            {
+                topScores.add(i, e);
+                topScores.remove(topScores.size() - 1);
+                changed = true;
+                break;
+            }
+
+        ArrayList<ScoreEntry> scores = levelScores.computeIfAbsent(e.getLevelNum(), l -> new ArrayList<>());
+        int i = 0;
+        while (i < scores.size() && scores.get(i).getScore() >= e.getScore())
+            ++i;
+        if (i < capacity)
+        {
+            scores.add(i, e);
+            if (scores.size() > capacity)
+                scores.remove(scores.size() - 1);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void readSnapshot() throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(snapshotFile.toPath()));
+        if (buf.remaining() < 4 + 1 + 8 + 4 + 4 ||
+            buf.getInt(buf.limit() - 4) != crc(buf.array(), 0, buf.limit() - 4) ||
+            buf.getInt() != SNAPSHOT_MAGIC || buf.get() != VERSION)
+            throw new IOException("Corrupt high score snapshot: " + snapshotFile);
+        long seq = buf.getLong();
+        int count = buf.getInt();
+        ArrayList<ScoreEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entries.add(new ScoreEntry(buf.getLong(), buf.getInt(), buf.getInt(), buf.get() != 0));
+
+        // replaying in recording order rebuilds the same rankings
+        entries.sort((a, b) -> Long.compare(a.getSeq(), b.getSeq()));
+        for (ScoreEntry e : entries)
+            apply(e);
+        lastSeq = seq;
+        snapshotSeq = seq;
+    }
+
+    // reads just the sequence number in the snapshot's header, or -1 if there is no snapshot
+    private long readSnapshotSeq() throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ))
+        {
+            ByteBuffer buf = ByteBuffer.allocate(4 + 1 + 8);
+            while (buf.hasRemaining() && ch.read(buf) >= 0)
+                ;
+            return buf.hasRemaining() ? -1 : buf.getLong(4 + 1);
+        }
+        catch (NoSuchFileException e)
+        {
+            return -1;
+        }
+    }
+
+    // replays the journal from the given position
+    // repair: whether to cut off a torn or corrupt tail
+    // returns whether any ranking changed
+    private boolean replayJournal(long from, boolean repair) throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.max(0, journal.size() - from));
+        while (buf.hasRemaining() && journal.read(buf, from + buf.position()) >= 0)
+            ;
+        buf.flip();
+        boolean changed = false;
+        long valid = 0;
+        while (buf.remaining() >= RECORD_SIZE)
+        {
+            int start = buf.position();
+            if (buf.getInt(start + RECORD_SIZE - 4) != crc(buf.array(), start, RECORD_SIZE - 4) || buf.get() != VERSION)
+                break; // torn or corrupt record; everything after it is unusable
+            ScoreEntry e = new ScoreEntry(buf.getLong(), buf.getInt(), buf.getInt(), buf.get() != 0);
+            buf.getInt(); // crc
+            if (e.getSeq() > lastSeq) // older records are already in the snapshot
+                changed |= apply(e);
+            ++journalRecords;
+            valid = buf.position();
+        }
+        // a torn tail is looked at again next time, in case it was a record still being written
+        knownJournalSize = from + valid;
+        if (repair && knownJournalSize < journal.size())
+        {
+            journal.truncate(knownJournalSize);
+            journal.force(true);
+        }
+        return changed;
+    }
+
+    // reads rankings from a plain high score text file
+    private void importText() throws FileNotFoundException
+    {
+        try (Scanner rd = new Scanner(textFile))
+        {
+            while (rd.hasNextLine())
+            {
+                Scanner line = new Scanner(rd.nextLine());
+                if (!line.hasNext())
+                    continue;
+                line.next(); // rank
+                int score = line.nextInt();
+                if (line.hasNext()) // ": Level n"
+                {
+                    line.next();
+                    line.next();
+                    apply(new ScoreEntry(++lastSeq, score, line.nextInt(), false));
+                }
+                else if (score != 0)
+                    apply(new ScoreEntry(++lastSeq, score, 1, true));
+            }
+        }
+    }
+
+    // rewrites the text file shown to players, e.g. "1. 6100 : Level 4"
+    private void writeText() throws IOException
+    {
+        File temp = new File(textFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp))
+        {
+            PrintStream ps = new PrintStream(out);
+            for (int i = 0; i < topScores.size(); ++i)
+                ps.println((i + 1) + ". " + topScores.get(i).toLine());
+            ps.flush();
+            out.getChannel().force(true);
+        }
+
+        // uneditable except by the store
+        textFile.setWritable(true);
+        replace(temp, textFile);
+        textFile.setReadOnly();
+    }
+
+    private static void replace(File source, File target) throws IOException
+    {
+        try
+        {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeRecord(ByteBuffer buf, ScoreEntry e)
+    {
+        int start = buf.position();
+        buf.put(VERSION).putLong(e.getSeq()).putInt(e.getScore()).putInt(e.getLevelNum()).put((byte)(e.isStandalone() ? 1 : 0));
+        buf.putInt(crc(buf.array(), start, buf.position() - start));
+    }
+
+    private static int crc(byte[] bytes, int offset, int length)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,108 @@
+package arcade.score;
+
+import arcade.sim.GameRun;
+import arcade.sim.InputLog;
+import arcade.sim.LevelPack;
+import arcade.sim.RunResult;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks every score against the game it came from before it is recorded.
+ * The game's InputLog is replayed without a window on a pool of verifier threads, far faster than real time,
+ * and the score is only handed to the ScoreWriter if the replay ends with the same score and level.
+ * @author Kevin
+ */
+public class ScoreVerifier
+{
+    public static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    
+    private final ScoreWriter writer;
+    private final ExecutorService pool;
+    private final AtomicInteger accepted;
+    private final AtomicInteger rejected;
+    
+    // writer: where verified scores go
+    public ScoreVerifier(ScoreWriter writer, int threads)
+    {
+        this.writer = writer;
+        AtomicInteger threadNum = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, r ->
+        {
+            Thread thread = new Thread(r, "Score verifier " + threadNum.incrementAndGet());
+            thread.setDaemon(true); // close() finishes waiting checks first
+            return thread;
+        });
+        accepted = new AtomicInteger();
+        rejected = new AtomicInteger();
+    }
+    
+    // queues a score to be checked against the game that earned it
+    // pack: the level pack the game was played with, for Breakout; null otherwise
+    public void submit(ScoreRecord record, InputLog log, LevelPack pack)
+    {
+        if (pool.isShutdown())
+            return;
+        pool.execute(() ->
+        {
+            String problem = check(record, log, pack);
+            if (problem == null)
+            {
+                accepted.incrementAndGet();
+                writer.submit(record);
+            }
+            else
+            {
+                rejected.incrementAndGet();
+                System.err.println("Rejected a score of " + record.getScore() + " in " + record.getStore().getTextFile() + ": " + problem);
+            }
+        });
+    }
+    
+    // returns why the score doesn't match its game, or null if it does
+    public static String check(ScoreRecord record, InputLog log, LevelPack pack)
+    {
+        RunResult result;
+        try
+        {
+            result = GameRun.replay(0, log, pack).call();
+        }
+        catch (Exception e)
+        {
+            return "replay failed: " + e;
+        }
+        if (!result.isFinished())
+            return "the replayed game did not end";
+        if (result.getScore() == null || result.getScore() != record.getScore())
+            return "the replay scored " + result.getScore();
+        if (!record.isStandalone() && result.getLevelNum() != record.getLevelNum())
+            return "the replay ended on level " + result.getLevelNum() + " instead of " + record.getLevelNum();
+        return null;
+    }
+    
+    // checks every waiting score, handing the good ones to the writer, then stops the verifier threads
+    // safe to call more than once
+    public void close()
+    {
+        pool.shutdown();
+        try
+        {
+            pool.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public int getAccepted()
+    {
+        return accepted.get();
+    }
+    public int getRejected()
+    {
+        return rejected.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package arcade.score;
+
+import arcade.sim.FrameStats;
+import arcade.trace.ScoreWriteEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records high scores on its own thread so the game never waits on the disk.
+ * The game only queues a ScoreRecord; the writer takes every record waiting at that
+ * point and commits them to each affected ScoreStore at once, however many records it holds.
+ * @author Kevin
+ */
+public class ScoreWriter
+{
+    public static final int QUEUE_CAPACITY = 64;
+    public static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    
+    // marks the end of the queue when closing
+    private static final ScoreRecord END = new ScoreRecord(null, 0, 0, true);
+    
+    private final BlockingQueue<ScoreRecord> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+    
+    public ScoreWriter()
+    {
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        thread = new Thread(this::run, "High score writer");
+        thread.setDaemon(true); // close() flushes, so the thread never needs to keep the program open
+        closed = false;
+        thread.start();
+    }
+    
+    // queues a score to be recorded; only waits if QUEUE_CAPACITY scores are already waiting
+    public void submit(ScoreRecord record)
+    {
+        if (closed)
+            return;
+        try
+        {
+            queue.put(record);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // writes every queued score, then stops the writer thread
+    // safe to call more than once, e.g. from both Application.stop() and a shutdown hook
+    public void close()
+    {
+        if (!closed)
+        {
+            closed = true;
+            try
+            {
+                queue.put(END);
+                thread.join(CLOSE_TIMEOUT_MILLIS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private void run()
+    {
+        ArrayList<ScoreRecord> batch = new ArrayList<>();
+        boolean running = true;
+        while (running)
+        {
+            try
+            {
+                batch.add(queue.take());
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+            queue.drainTo(batch);
+            running = !batch.remove(END);
+            
+            // group the batch by store so each store commits once
+            Map<ScoreStore, List<ScoreRecord>> byStore = new LinkedHashMap<>();
+            for (ScoreRecord r : batch)
+                byStore.computeIfAbsent(r.getStore(), st -> new ArrayList<>()).add(r);
+            for (Map.Entry<ScoreStore, List<ScoreRecord>> e : byStore.entrySet())
+            {
+                ScoreWriteEvent event = new ScoreWriteEvent(e.getKey().getTextFile().getName(), e.getValue().size());
+                event.begin();
+                try
+                {
+                    e.getKey().recordAll(e.getValue());
+                    event.setCounts(FrameStats.LIVE);
+                    event.commit();
+                }
+                catch (IOException ex)
+                { // a bad file should not stop later scores from being written
+                    System.err.println("Could not record high scores in " + e.getKey().getTextFile() + ": " + ex);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
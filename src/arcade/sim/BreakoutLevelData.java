@@ -0,0 +1,164 @@
+package arcade.sim;
+
+import arcade.sprite.Ball;
+import arcade.sprite.Block;
+import arcade.sprite.Paddle;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * One level of the Breakout game mode as read from a level file.
+ * Positions and sizes are fractions of the play area, so a level fits any resolution.
+ *
+ * A level file has one entry per line; blank lines and lines starting with # are ignored.
+ *   level n                     level number, shown in titles and recorded with high scores
+ *   next name                   optional, the level played after this one; the last level has none
+ *   ball x y speed angle        x and y as fractions of width and height, speed as a fraction of
+ *                               height per update, angle in degrees
+ *   block x y width height      one per Block, optionally followed by "unbreakable"
+ * Numbers can be written as decimals or as fractions, e.g. 7/9.
+ * @author Kevin
+ */
+public class BreakoutLevelData
+{
+    private final String name;
+    private final int levelNum;
+    private final String next;
+    private final double ballX;
+    private final double ballY;
+    private final double ballSpeed;
+    private final double ballAngle;
+    private final double[] blocks; // x, y, width, height of each Block
+    private final boolean[] breakable;
+    
+    public BreakoutLevelData(String name, int levelNum, String next, double ballX, double ballY, double ballSpeed,
+                             double ballAngle, double[] blocks, boolean[] breakable)
+    {
+        this.name = name;
+        this.levelNum = levelNum;
+        this.next = next;
+        this.ballX = ballX;
+        this.ballY = ballY;
+        this.ballSpeed = ballSpeed;
+        this.ballAngle = ballAngle;
+        this.blocks = blocks;
+        this.breakable = breakable;
+    }
+    
+    // reads a level file; name is what other levels use to refer to it
+    public static BreakoutLevelData parse(String name, Reader in) throws IOException
+    {
+        BufferedReader rd = new BufferedReader(in);
+        int levelNum = -1;
+        String next = null;
+        double[] ball = null;
+        double[] blocks = new double[64];
+        boolean[] breakable = new boolean[16];
+        int count = 0;
+        int lineNum = 0;
+        String line;
+        while ((line = rd.readLine()) != null)
+        {
+            ++lineNum;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] words = line.split("\\s+");
+            try
+            {
+                switch (words[0])
+                {
+                    case "level":
+                        expect(words, 2);
+                        levelNum = Integer.parseInt(words[1]);
+                        break;
+                    case "next":
+                        expect(words, 2);
+                        next = words[1];
+                        break;
+                    case "ball":
+                        expect(words, 5);
+                        ball = new double[] { number(words[1]), number(words[2]), number(words[3]), number(words[4]) };
+                        break;
+                    case "block":
+                        if (words.length == 6 && !words[5].equals("unbreakable"))
+                            throw new IllegalArgumentException("unknown block option " + words[5]);
+                        if (words.length != 6)
+                            expect(words, 5);
+                        if (4*count == blocks.length)
+                        {
+                            blocks = Arrays.copyOf(blocks, 2*blocks.length);
+                            breakable = Arrays.copyOf(breakable, 2*breakable.length);
+                        }
+                        for (int i = 0; i < 4; ++i)
+                            blocks[4*count + i] = number(words[i + 1]);
+                        breakable[count++] = words.length == 5;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown entry " + words[0]);
+                }
+            }
+            catch (IllegalArgumentException e) // includes NumberFormatException
+            {
+                throw new IOException(name + ", line " + lineNum + ": " + e.getMessage());
+            }
+        }
+        if (levelNum < 0)
+            throw new IOException(name + ": missing level number");
+        if (ball == null)
+            throw new IOException(name + ": missing ball");
+        return new BreakoutLevelData(name, levelNum, next, ball[0], ball[1], ball[2], ball[3],
+                                     Arrays.copyOf(blocks, 4*count), Arrays.copyOf(breakable, count));
+    }
+    
+    // creates the game logic for this level at the World's size, carrying over score and lives from the previous level
+    public BreakoutSimulation createSimulation(World world, int score, int lives)
+    {
+        double w = world.getWidth();
+        double h = world.getHeight();
+        ArrayList<Block> list = new ArrayList<>(breakable.length);
+        for (int i = 0; i < breakable.length; ++i)
+            list.add(new Block(blocks[4*i]*w, blocks[4*i + 1]*h, blocks[4*i + 2]*w, blocks[4*i + 3]*h, breakable[i]));
+        Ball b = new Ball(world, world.getConfig().getBallRadius(), ballX*w, ballY*h, ballSpeed*h, ballAngle);
+        return new BreakoutSimulation(world, new Paddle(world), b, list, levelNum, score, lives);
+    }
+    
+    private static void expect(String[] words, int length)
+    {
+        if (words.length != length)
+            throw new IllegalArgumentException(words[0] + " needs " + (length - 1) + " values");
+    }
+    
+    private static double number(String word)
+    {
+        int slash = word.indexOf('/');
+        if (slash < 0)
+            return Double.parseDouble(word);
+        return Double.parseDouble(word.substring(0, slash)) / Double.parseDouble(word.substring(slash + 1));
+    }
+    
+    public String getName()
+    {
+        return name;
+    }
+    public int getLevelNum()
+    {
+        return levelNum;
+    }
+    // null if this is the last level
+    public String getNext()
+    {
+        return next;
+    }
+    public boolean hasNext()
+    {
+        return next != null;
+    }
+    public int getBlockCount()
+    {
+        return breakable.length;
+    }
+}
\ No newline at end of file
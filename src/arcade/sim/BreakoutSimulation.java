@@ -0,0 +1,238 @@
+package arcade.sim;
+
+import arcade.sprite.Ball;
+import arcade.sprite.Block;
+import arcade.sprite.BlockGrid;
+import arcade.sprite.Paddle;
+import arcade.trace.TraceRecorder;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * The game logic of a Breakout level: one Ball, one Paddle, and a layout of Blocks.
+ * Layouts come from level files (see BreakoutLevelData), so this one class plays every level.
+ * @author Kevin
+ */
+public class BreakoutSimulation implements ScoringSimulation
+{
+    private final World world;
+    private final Paddle p;
+    private final Ball b;
+    private final ArrayList<Block> blocks;
+    private final BlockGrid grid; // used for collisions, kept in sync with blocks
+    private final int levelNum;
+    private final int totalBlocks;
+    private final int breakableBlocks;
+    private int initialScore;
+    private int initialLives;
+    private int blocksBroken;
+    private int score;
+    private int drops;
+    private int lives;
+    private int blockChanges; // not part of the game state; tells a cached drawing of the Blocks when to redraw
+    private TraceRecorder trace;
+    
+    public BreakoutSimulation(World world, Paddle p, Ball b, ArrayList<Block> blocks, int levelNum, int score, int lives)
+    {
+        this.world = world;
+        this.p = p;
+        this.b = b;
+        this.blocks = blocks;
+        grid = new BlockGrid(blocks, world.getWidth(), world.getHeight());
+        this.levelNum = levelNum;
+        totalBlocks = blocks.size();
+        int counter = 0;
+        for (Block bl : blocks)
+            if (bl.isBreakable())
+                ++counter;
+        breakableBlocks = counter;
+        blocksBroken = 0;
+        this.score = score;
+        initialScore = score;
+        if (lives < 0)
+            lives = 0;
+        this.lives = lives;
+        initialLives = lives;
+        drops = 0;
+        trace = TraceRecorder.OFF;
+    }
+    
+    @Override
+    public void update(double timeElapsed)
+    {
+        b.savePosition();
+        p.savePosition();
+        long start = trace.start();
+        b.hitsBlock(grid);
+        if (totalBlocks - blocks.size() != blocksBroken)
+        {
+            blocksBroken = totalBlocks - blocks.size();
+            ++blockChanges;
+        }
+        if (!(b.hitsPaddle(p) || b.hitsWall())) // these methods check for collision and update position themselves
+            if (b.updatePos()) // default position update method if no collisions occur
+                ++drops;
+        trace.end(TraceRecorder.COLLISIONS, start);
+        p.updatePos();
+        score = initialScore + 100*blocksBroken - 20*(int)timeElapsed - 1000*drops;
+        lives = initialLives - drops;
+        if (lives < 0)
+            lives = 0;
+    }
+    
+    @Override
+    public void setTrace(TraceRecorder trace)
+    {
+        this.trace = trace;
+    }
+    
+    @Override
+    public boolean isOver()
+    {
+        return isComplete() || drops > initialLives;
+    }
+    // whether every breakable Block has been broken
+    public boolean isComplete()
+    {
+        return blocksBroken == breakableBlocks;
+    }
+    
+    // bonus for finishing the final level, 1000 points per life left
+    public void awardLifeBonus()
+    {
+        score += 1000*lives;
+    }
+    
+    // lives carried over to the next level, with an extra life for not dropping the Ball
+    public int getNextLives()
+    {
+        return lives + (drops == 0 ? 1 : 0);
+    }
+    
+    // sets the score and lives carried over from the previous level,
+    // for a level whose game logic was prepared before the previous level ended
+    public void carryOver(int score, int lives)
+    {
+        if (lives < 0)
+            lives = 0;
+        this.score = score;
+        initialScore = score;
+        this.lives = lives;
+        initialLives = lives;
+    }
+    
+    @Override
+    public void writeState(DataOutput out) throws IOException
+    {
+        out.writeInt(score);
+        out.writeInt(initialScore);
+        out.writeInt(lives);
+        out.writeInt(initialLives);
+        out.writeInt(drops);
+        p.writeState(out);
+        b.writeState(out);
+        grid.writeState(out); // the layout never changes, so only which Blocks are left
+    }
+    @Override
+    public void readState(DataInput in) throws IOException
+    {
+        score = in.readInt();
+        initialScore = in.readInt();
+        lives = in.readInt();
+        initialLives = in.readInt();
+        drops = in.readInt();
+        p.readState(in);
+        b.readState(in);
+        if (grid.readState(in)) // in place, so a RewindBuffer reading a state every tick allocates nothing
+            ++blockChanges;
+        blocksBroken = totalBlocks - blocks.size();
+    }
+    
+    @Override
+    public World getWorld()
+    {
+        return world;
+    }
+    @Override
+    public Paddle getPaddle()
+    {
+        return p;
+    }
+    public Ball getBall()
+    {
+        return b;
+    }
+    @Override
+    public int getBallCount()
+    {
+        return 1;
+    }
+    @Override
+    public int getBlockCount()
+    {
+        return blocks.size();
+    }
+    @Override
+    public int getCollisionTests()
+    {
+        return grid.getLastTests() + 2; // the Blocks near the Ball, then the Paddle and walls
+    }
+    @Override
+    public Ball getBall(int i)
+    {
+        if (i != 0)
+            throw new IndexOutOfBoundsException("Breakout has one Ball, not " + (i + 1));
+        return b;
+    }
+    public ArrayList<Block> getBlocks()
+    {
+        return blocks;
+    }
+    // goes up whenever the Blocks change, from one being broken or a state being read with different Blocks left
+    public int getBlockChanges()
+    {
+        return blockChanges;
+    }
+    // the Blocks broken, or taken out or put back by reading a state, since clearChangedBlocks;
+    // like getBlockChanges, only for drawing
+    public ArrayList<Block> getChangedBlocks()
+    {
+        return grid.getChanges();
+    }
+    public void clearChangedBlocks()
+    {
+        grid.clearChanges();
+    }
+    public int getLevelNum()
+    {
+        return levelNum;
+    }
+    public int getTotalBlocks()
+    {
+        return totalBlocks;
+    }
+    public int getBreakableBlocks()
+    {
+        return breakableBlocks;
+    }
+    public int getBlocksBroken()
+    {
+        return blocksBroken;
+    }
+    @Override
+    public int getScore()
+    {
+        return score;
+    }
+    @Override
+    public int getDrops()
+    {
+        return drops;
+    }
+    public int getLives()
+    {
+        return lives;
+    }
+}
@@ -0,0 +1,169 @@
+package arcade.sim;
+
+import arcade.sprite.Ball;
+import arcade.sprite.Paddle;
+import arcade.trace.TraceRecorder;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The game logic of the Chaos game mode: up to 100 Balls at once, counting drops.
+ * @author Kevin
+ */
+public class ChaosSimulation implements Simulation
+{
+    // length of a game, in seconds
+    public static final double TIME_LIMIT = 30.0;
+    public static final int MAX_BALLS = 100;
+    
+    private final World world;
+    private SplittableRandom r; // split from the game's stream
+    private final Paddle p;
+    private Ball[] balls;
+    private Ball[] allBalls; // every Ball created so far, reused after a reset
+    private int drops;
+    private double timeElapsed;
+    private TraceRecorder trace;
+    
+    public ChaosSimulation(World world, SplittableRandom r)
+    {
+        this(world, r, r.nextInt(MAX_BALLS) + 1);
+    }
+    public ChaosSimulation(World world, SplittableRandom r, int ballCount)
+    {
+        this.world = world;
+        this.r = r;
+        p = new Paddle(world);
+        allBalls = new Ball[0];
+        trace = TraceRecorder.OFF;
+        start(ballCount);
+    }
+    
+    // starts a new game in place with a new random number of Balls, reusing the Ball objects already made
+    // r: the new game's stream, so the game plays just as a new ChaosSimulation would
+    public void reset(SplittableRandom r)
+    {
+        this.r = r;
+        p.reset();
+        start(r.nextInt(MAX_BALLS) + 1);
+    }
+    private void start(int ballCount)
+    {
+        if (ballCount > allBalls.length)
+            allBalls = Arrays.copyOf(allBalls, ballCount);
+        if (balls == null || balls.length != ballCount)
+            balls = Arrays.copyOf(allBalls, ballCount);
+        for (int i = 0; i < balls.length; ++i)
+        {
+            double x = r.nextDouble() * world.getWidth();
+            double y = r.nextDouble() * p.getY();
+            double angle = r.nextDouble() * 150 + 195;
+            if (balls[i] == null)
+                balls[i] = allBalls[i] = new Ball(world, world.getConfig().getBallRadius(), x, y, world.getHeight()/180.0, angle);
+            else
+                balls[i].place(x, y, world.getHeight()/180.0, angle);
+        }
+        drops = 0;
+        timeElapsed = 0;
+    }
+    
+    @Override
+    public void update(double timeElapsed)
+    {
+        this.timeElapsed = timeElapsed;
+        for (Ball b : balls)
+            b.savePosition();
+        p.savePosition();
+        long start = trace.start();
+        for (Ball b : balls)
+            if (!(b.hitsPaddle(p) || b.hitsWall()))
+                if (b.updatePos())
+                    ++drops;
+        trace.end(TraceRecorder.COLLISIONS, start);
+        p.updatePos();
+    }
+    
+    @Override
+    public void writeState(DataOutput out) throws IOException
+    {
+        out.writeInt(drops);
+        out.writeDouble(timeElapsed);
+        p.writeState(out);
+        out.writeInt(balls.length);
+        for (Ball b : balls)
+            b.writeState(out);
+    }
+    @Override
+    public void readState(DataInput in) throws IOException
+    {
+        drops = in.readInt();
+        timeElapsed = in.readDouble();
+        p.readState(in);
+        int ballCount = in.readInt();
+        if (ballCount > allBalls.length)
+            allBalls = Arrays.copyOf(allBalls, ballCount);
+        if (balls.length != ballCount)
+            balls = Arrays.copyOf(allBalls, ballCount);
+        for (int i = 0; i < ballCount; ++i)
+        {
+            if (balls[i] == null)
+                balls[i] = allBalls[i] = new Ball(world, world.getConfig().getBallRadius(), 0, 0, 0, 0);
+            balls[i].readState(in);
+        }
+    }
+    
+    @Override
+    public void setTrace(TraceRecorder trace)
+    {
+        this.trace = trace;
+    }
+    
+    @Override
+    public boolean isOver()
+    {
+        return timeElapsed >= TIME_LIMIT; // counted in game time, not frames
+    }
+    
+    @Override
+    public World getWorld()
+    {
+        return world;
+    }
+    @Override
+    public Paddle getPaddle()
+    {
+        return p;
+    }
+    public Ball[] getBalls()
+    {
+        return balls;
+    }
+    @Override
+    public int getBallCount()
+    {
+        return balls.length;
+    }
+    @Override
+    public int getBlockCount()
+    {
+        return 0;
+    }
+    @Override
+    public int getCollisionTests()
+    {
+        return 2*balls.length; // the Paddle and walls for every Ball
+    }
+    @Override
+    public Ball getBall(int i)
+    {
+        return balls[i];
+    }
+    @Override
+    public int getDrops()
+    {
+        return drops;
+    }
+}
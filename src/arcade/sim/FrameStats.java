@@ -0,0 +1,117 @@
+package arcade.sim;
+
+/**
+ * Where the game's frame time goes: how long updating, drawing, and ending a Level take,
+ * and the gap between one frame and the next, each kept in a LatencyHistogram.
+ * Also keeps the frame and tick rates over the last second and, as of the last frame,
+ * the number of Balls, Blocks, and collision tests per tick.
+ * The GameLoop records into one of these while the window is open; benchmarks can record into their own.
+ * Recording never locks or allocates, and everything can be read from any thread.
+ * @author Kevin
+ */
+public class FrameStats
+{
+    public static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    // recorded by the window's GameLoop
+    public static final FrameStats LIVE = new FrameStats();
+    
+    private final LatencyHistogram update;
+    private final LatencyHistogram draw;
+    private final LatencyHistogram levelEnd;
+    private final LatencyHistogram frameGap;
+    // rates are worked out once per window from these
+    private long windowStart;
+    private int windowFrames;
+    private int windowTicks;
+    private volatile double frameRate;
+    private volatile double tickRate;
+    private volatile int balls;
+    private volatile int blocks;
+    private volatile int collisionTests;
+    
+    public FrameStats()
+    {
+        update = new LatencyHistogram();
+        draw = new LatencyHistogram();
+        levelEnd = new LatencyHistogram();
+        frameGap = new LatencyHistogram();
+    }
+    
+    // called once per frame, after it is drawn
+    // now: System.nanoTime() at the start of the frame
+    // ticks: ticks run this frame
+    public void frame(long now, int ticks, Simulation sim)
+    {
+        if (windowStart == 0)
+            windowStart = now;
+        ++windowFrames;
+        windowTicks += ticks;
+        long elapsed = now - windowStart;
+        if (elapsed >= RATE_WINDOW_NANOS)
+        {
+            frameRate = windowFrames * 1e9 / elapsed;
+            tickRate = windowTicks * 1e9 / elapsed;
+            windowStart = now;
+            windowFrames = 0;
+            windowTicks = 0;
+        }
+        balls = sim.getBallCount();
+        blocks = sim.getBlockCount();
+        collisionTests = sim.getCollisionTests();
+    }
+    
+    // forgets everything recorded, e.g. between benchmark runs
+    public void reset()
+    {
+        update.reset();
+        draw.reset();
+        levelEnd.reset();
+        frameGap.reset();
+        windowStart = 0;
+        windowFrames = 0;
+        windowTicks = 0;
+        frameRate = 0;
+        tickRate = 0;
+    }
+    
+    // times of each Simulation update
+    public LatencyHistogram getUpdate()
+    {
+        return update;
+    }
+    // times of drawing each frame
+    public LatencyHistogram getDraw()
+    {
+        return draw;
+    }
+    // times of drawing a Level's last frame and end text
+    public LatencyHistogram getLevelEnd()
+    {
+        return levelEnd;
+    }
+    // times from the start of one frame to the start of the next
+    public LatencyHistogram getFrameGap()
+    {
+        return frameGap;
+    }
+    public double getFrameRate()
+    {
+        return frameRate;
+    }
+    public double getTickRate()
+    {
+        return tickRate;
+    }
+    public int getBalls()
+    {
+        return balls;
+    }
+    public int getBlocks()
+    {
+        return blocks;
+    }
+    public int getCollisionTests()
+    {
+        return collisionTests;
+    }
+}
\ No newline at end of file
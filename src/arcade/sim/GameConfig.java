@@ -0,0 +1,129 @@
+package arcade.sim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Settings for one game session: the play area's size, the sizes and speeds of sprites, and whether save states are on.
+ * A GameConfig never changes once made, so any number of sessions can run at once with their own settings;
+ * changing an option makes a new GameConfig for the next session.
+ * Sprites get their settings through their World.
+ * @author Kevin
+ */
+public final class GameConfig
+{
+    public static final GameConfig DEFAULT = forSize(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, false);
+    
+    private final double width;
+    private final double height;
+    private final double ballRadius;
+    private final double ballMaxSpeed;
+    private final double ballSpeedIncrease; // speed added every time a Ball hits the Paddle
+    private final double paddleWidth;
+    private final double paddleThickness;
+    private final double paddleSpeed;
+    private final boolean saveStates;
+    
+    public GameConfig(double width, double height, double ballRadius, double ballMaxSpeed, double ballSpeedIncrease,
+                      double paddleWidth, double paddleThickness, double paddleSpeed, boolean saveStates)
+    {
+        this.width = width;
+        this.height = height;
+        this.ballRadius = ballRadius;
+        this.ballMaxSpeed = ballMaxSpeed;
+        this.ballSpeedIncrease = ballSpeedIncrease;
+        this.paddleWidth = paddleWidth;
+        this.paddleThickness = paddleThickness;
+        this.paddleSpeed = paddleSpeed;
+        this.saveStates = saveStates;
+    }
+    
+    // sprite sizes and speeds scaled to the play area's height
+    public static GameConfig forSize(double width, double height, boolean saveStates)
+    {
+        return new GameConfig(width, height, height/180.0, height/60.0, height/1800.0,
+                              height/3.0, height/90.0, height/90.0, saveStates);
+    }
+    public GameConfig withSize(double width, double height)
+    {
+        return forSize(width, height, saveStates);
+    }
+    public GameConfig withSaveStates(boolean saveStates)
+    {
+        return new GameConfig(width, height, ballRadius, ballMaxSpeed, ballSpeedIncrease,
+                              paddleWidth, paddleThickness, paddleSpeed, saveStates);
+    }
+    
+    // stored with recorded games, which are replayed with exactly these settings
+    public void write(DataOutput out) throws IOException
+    {
+        out.writeDouble(width);
+        out.writeDouble(height);
+        out.writeDouble(ballRadius);
+        out.writeDouble(ballMaxSpeed);
+        out.writeDouble(ballSpeedIncrease);
+        out.writeDouble(paddleWidth);
+        out.writeDouble(paddleThickness);
+        out.writeDouble(paddleSpeed);
+        out.writeBoolean(saveStates);
+    }
+    public static GameConfig read(DataInput in) throws IOException
+    {
+        return new GameConfig(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                              in.readDouble(), in.readDouble(), in.readDouble(), in.readBoolean());
+    }
+    
+    @Override
+    public boolean equals(Object o)
+    {
+        if (!(o instanceof GameConfig))
+            return false;
+        GameConfig c = (GameConfig) o;
+        return width == c.width && height == c.height && ballRadius == c.ballRadius && ballMaxSpeed == c.ballMaxSpeed
+            && ballSpeedIncrease == c.ballSpeedIncrease && paddleWidth == c.paddleWidth
+            && paddleThickness == c.paddleThickness && paddleSpeed == c.paddleSpeed && saveStates == c.saveStates;
+    }
+    @Override
+    public int hashCode()
+    {
+        return Double.hashCode(width)*31 + Double.hashCode(height);
+    }
+    
+    public double getWidth()
+    {
+        return width;
+    }
+    public double getHeight()
+    {
+        return height;
+    }
+    public double getBallRadius()
+    {
+        return ballRadius;
+    }
+    public double getBallMaxSpeed()
+    {
+        return ballMaxSpeed;
+    }
+    public double getBallSpeedIncrease()
+    {
+        return ballSpeedIncrease;
+    }
+    public double getPaddleWidth()
+    {
+        return paddleWidth;
+    }
+    public double getPaddleThickness()
+    {
+        return paddleThickness;
+    }
+    public double getPaddleSpeed()
+    {
+        return paddleSpeed;
+    }
+    public boolean isSaveStates()
+    {
+        return saveStates;
+    }
+}
\ No newline at end of file
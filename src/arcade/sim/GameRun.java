@@ -0,0 +1,75 @@
+package arcade.sim;
+
+import java.util.concurrent.Callable;
+
+/**
+ * One game played from start to finish without a window, as fast as it can be simulated.
+ * A run is fully decided by its mode, seed, configuration, and input, so running it again gives the same result.
+ * Runs share nothing that changes, so many can be played at once on different threads.
+ * 
+ * Breakout runs play every level of the pack in order, carrying score and lives over as the game does.
+ * Breakout has no randomness, so its seed is only recorded.
+ * A recorded game is checked by replaying its InputLog in a GameRun, which reaches the same result.
+ * @author Kevin
+ */
+public class GameRun implements Callable<RunResult>
+{
+    public static final String BREAKOUT = "breakout";
+    public static final String SURVIVAL = "survival";
+    public static final String CHAOS = "chaos";
+    public static final int BREAKOUT_LIVES = 3;
+    
+    private final int index;
+    private final String mode;
+    private final long seed;
+    private final long tickLimit;
+    private final GameConfig config;
+    private final LevelPack pack; // only used by Breakout
+    private final PaddleInput input;
+    
+    // index: identifies the run in the results, since runs can finish in any order
+    // tickLimit: most updates to play before stopping the game, across all levels
+    public GameRun(int index, String mode, long seed, long tickLimit, GameConfig config, LevelPack pack, PaddleInput input)
+    {
+        if (!mode.equals(BREAKOUT) && !mode.equals(SURVIVAL) && !mode.equals(CHAOS))
+            throw new IllegalArgumentException("Unknown game mode " + mode);
+        if (mode.equals(BREAKOUT) && pack == null)
+            throw new IllegalArgumentException("Breakout runs need a level pack");
+        this.index = index;
+        this.mode = mode;
+        this.seed = seed;
+        this.tickLimit = tickLimit;
+        this.config = config;
+        this.pack = pack;
+        this.input = input;
+    }
+    
+    // a run that plays a recorded game again, ending where the recording ended
+    public static GameRun replay(int index, InputLog log, LevelPack pack)
+    {
+        return new GameRun(index, log.getMode(), log.getSeed(), log.getTicks(), log.getConfig(), pack, log);
+    }
+    
+    @Override
+    public RunResult call() throws Exception
+    {
+        HeadlessGame game = new HeadlessGame(mode, seed, config, pack, input);
+        while (game.getTicks() < tickLimit)
+            if (!game.step())
+                break;
+        return game.getResult(index, seed);
+    }
+    
+    public int getIndex()
+    {
+        return index;
+    }
+    public String getMode()
+    {
+        return mode;
+    }
+    public long getSeed()
+    {
+        return seed;
+    }
+}
\ No newline at end of file
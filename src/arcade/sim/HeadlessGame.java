@@ -0,0 +1,155 @@
+package arcade.sim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * A whole game played one tick at a time without a window, as a GameRun or a replay viewer needs it.
+ * Makes its Simulations from the seed just as the window does, and plays Breakout levels
+ * one after another, carrying score and lives over as the game does.
+ * Its state can be written and read back, so a replay can start from a keyframe instead of the first tick.
+ * @author Kevin
+ */
+public class HeadlessGame
+{
+    private final String mode;
+    private final GameConfig config;
+    private final LevelPack pack; // only used by Breakout
+    private final PaddleInput input;
+    private Simulation sim;
+    private BreakoutLevelData data; // the current Breakout level
+    private long ticks; // across all levels
+    private long levelTicks;
+    private int earlierDrops; // from finished Breakout levels
+    private int earlierBlocksBroken;
+    private boolean finished;
+    
+    public HeadlessGame(String mode, long seed, GameConfig config, LevelPack pack, PaddleInput input) throws IOException
+    {
+        this.mode = mode;
+        this.config = config;
+        this.pack = pack;
+        this.input = input;
+        SplittableRandom random = new SplittableRandom(seed); // the game's stream, split just as the window's Levels split it
+        switch (mode)
+        {
+            case GameRun.BREAKOUT:
+                if (pack == null)
+                    throw new IllegalArgumentException("Breakout games need a level pack");
+                data = pack.getFirstLevel();
+                sim = data.createSimulation(new World(config), 0, GameRun.BREAKOUT_LIVES);
+                break;
+            case GameRun.SURVIVAL:
+                sim = new SurvivalSimulation(new World(config), random.split());
+                break;
+            case GameRun.CHAOS:
+                sim = new ChaosSimulation(new World(config), random.split());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown game mode " + mode);
+        }
+    }
+    
+    // plays one tick, moving on to the next Breakout level when one is complete
+    // returns false once the game is over
+    public boolean step() throws IOException
+    {
+        if (finished)
+            return false;
+        ++ticks;
+        ++levelTicks; // game time starts over with every level, as it does in the window
+        input.control(sim, ticks);
+        sim.update((double) levelTicks / Simulation.TICKS_PER_SECOND);
+        if (sim.isOver())
+        {
+            if (sim instanceof BreakoutSimulation)
+            {
+                BreakoutSimulation bSim = (BreakoutSimulation) sim;
+                if (bSim.isComplete() && data.hasNext())
+                {
+                    earlierDrops += bSim.getDrops();
+                    earlierBlocksBroken += bSim.getBlocksBroken();
+                    data = pack.getLevel(data.getNext());
+                    BreakoutSimulation next = data.createSimulation(new World(config), 0, 0);
+                    next.carryOver(bSim.getScore(), bSim.getNextLives());
+                    sim = next;
+                    levelTicks = 0;
+                    return true;
+                }
+                if (!data.hasNext())
+                    bSim.awardLifeBonus(); // as the game does at the end of the final level
+            }
+            finished = true;
+        }
+        return !finished;
+    }
+    
+    public void writeState(DataOutput out) throws IOException
+    {
+        out.writeLong(ticks);
+        out.writeLong(levelTicks);
+        out.writeBoolean(finished);
+        if (data != null)
+        {
+            out.writeUTF(data.getName());
+            out.writeInt(earlierDrops);
+            out.writeInt(earlierBlocksBroken);
+        }
+        sim.writeState(out);
+    }
+    public void readState(DataInput in) throws IOException
+    {
+        ticks = in.readLong();
+        levelTicks = in.readLong();
+        finished = in.readBoolean();
+        if (data != null)
+        {
+            String name = in.readUTF();
+            if (!name.equals(data.getName()))
+            {
+                data = pack.getLevel(name);
+                sim = data.createSimulation(new World(config), 0, 0);
+            }
+            earlierDrops = in.readInt();
+            earlierBlocksBroken = in.readInt();
+        }
+        sim.readState(in);
+    }
+    
+    public RunResult getResult(int index, long seed)
+    {
+        Integer score = sim instanceof ScoringSimulation ? ((ScoringSimulation) sim).getScore() : null;
+        int blocksBroken = earlierBlocksBroken + (sim instanceof BreakoutSimulation ? ((BreakoutSimulation) sim).getBlocksBroken() : 0);
+        return new RunResult(index, mode, seed, ticks, finished, score, earlierDrops + sim.getDrops(), blocksBroken,
+                             data == null ? 0 : data.getLevelNum());
+    }
+    
+    public String getMode()
+    {
+        return mode;
+    }
+    public Simulation getSimulation()
+    {
+        return sim;
+    }
+    // the current Breakout level, null for other modes
+    public BreakoutLevelData getLevelData()
+    {
+        return data;
+    }
+    public long getTicks()
+    {
+        return ticks;
+    }
+    // ticks since the current level started, which set its game time
+    public long getLevelTicks()
+    {
+        return levelTicks;
+    }
+    public boolean isFinished()
+    {
+        return finished;
+    }
+}
\ No newline at end of file
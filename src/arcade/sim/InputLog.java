@@ -0,0 +1,233 @@
+package arcade.sim;
+
+import arcade.sprite.Paddle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Everything needed to play one recorded game again exactly: its mode, seed, and GameConfig,
+ * how many ticks it lasted, and the Paddle input at every tick where it changed.
+ * As a PaddleInput it replays that input, in the window or in a GameRun at any speed.
+ * 
+ * An event holds the whole input state from its tick on: whether left and right are held,
+ * and the mouse X if the mouse moved just before that tick. Logs are written compactly,
+ * with tick and mouse deltas as variable-length numbers and the whole log deflated,
+ * so a game's input takes a few kilobytes and can be kept with its score.
+ * Like InputScript, playing a log back changes nothing in it, so one log can be replayed on many threads at once.
+ * @author Kevin
+ */
+public class InputLog implements PaddleInput
+{
+    public static final int MAGIC = 0x41524350; // "ARCP"
+    public static final int VERSION = 1;
+    
+    // bits of an event's flags
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int AIM = 4;
+    private static final int WHOLE_AIM = 8; // on disk only: aim stored as a whole-pixel delta
+    
+    private final String mode;
+    private final long seed;
+    private final GameConfig config;
+    private final long ticks;
+    private final long[] eventTicks;
+    private final byte[] flags;
+    private final double[] aims; // mouse X, for events with AIM set
+    
+    public InputLog(String mode, long seed, GameConfig config, long ticks, long[] eventTicks, byte[] flags, double[] aims)
+    {
+        this.mode = mode;
+        this.seed = seed;
+        this.config = config;
+        this.ticks = ticks;
+        this.eventTicks = eventTicks;
+        this.flags = flags;
+        this.aims = aims;
+    }
+    
+    @Override
+    public void control(Simulation sim, long tick)
+    {
+        // the latest event at or before this tick holds the current state
+        int i = Arrays.binarySearch(eventTicks, tick);
+        if (i < 0)
+            i = -i - 2;
+        Paddle p = sim.getPaddle();
+        if (i < 0)
+        {
+            p.setMoveLeft(false);
+            p.setMoveRight(false);
+            return;
+        }
+        if (eventTicks[i] == tick && (flags[i] & AIM) != 0) // the mouse only moves the Paddle on the tick it moved
+            p.setX(aims[i] - p.getWidth()/2);
+        p.setMoveLeft((flags[i] & LEFT) != 0);
+        p.setMoveRight((flags[i] & RIGHT) != 0);
+    }
+    
+    public void write(OutputStream out) throws IOException
+    {
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        DataOutputStream data = new DataOutputStream(deflater);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeUTF(mode);
+        data.writeLong(seed);
+        config.write(data);
+        writeVarLong(data, ticks);
+        writeVarLong(data, eventTicks.length);
+        writeEvents(data, 0, eventTicks.length, 0);
+        deflater.finish();
+        data.flush();
+    }
+    // writes events from up to to, with ticks counted from baseTick
+    void writeEvents(DataOutputStream data, int from, int to, long baseTick) throws IOException
+    {
+        long lastTick = baseTick;
+        long lastWholeAim = 0;
+        for (int i = from; i < to; ++i)
+        {
+            writeVarLong(data, eventTicks[i] - lastTick);
+            lastTick = eventTicks[i];
+            double aim = aims[i];
+            boolean whole = (flags[i] & AIM) != 0 && aim == Math.rint(aim) && Math.abs(aim) < 1L << 52;
+            data.writeByte(flags[i] | (whole ? WHOLE_AIM : 0));
+            if (whole)
+            {
+                long pixels = (long) aim;
+                long delta = pixels - lastWholeAim;
+                writeVarLong(data, (delta << 1) ^ (delta >> 63)); // zigzag, so small negative deltas stay small
+                lastWholeAim = pixels;
+            }
+            else if ((flags[i] & AIM) != 0)
+                data.writeDouble(aim);
+        }
+    }
+    
+    public static InputLog read(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(new InflaterInputStream(in));
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a recorded game");
+        int version = data.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported recording version " + version);
+        String mode = data.readUTF();
+        long seed = data.readLong();
+        GameConfig config = GameConfig.read(data);
+        long ticks = readVarLong(data);
+        long count = readVarLong(data);
+        if (count > Integer.MAX_VALUE || count > ticks)
+            throw new IOException("Corrupt recording: " + count + " events in " + ticks + " ticks");
+        long[] eventTicks = new long[(int) count];
+        byte[] flags = new byte[(int) count];
+        double[] aims = new double[(int) count];
+        readEvents(data, eventTicks, flags, aims, 0, (int) count, 0);
+        return new InputLog(mode, seed, config, ticks, eventTicks, flags, aims);
+    }
+    // reads events written by writeEvents into from up to to of the given arrays
+    static void readEvents(DataInputStream data, long[] eventTicks, byte[] flags, double[] aims, int from, int to, long baseTick)
+            throws IOException
+    {
+        long lastTick = baseTick;
+        long lastWholeAim = 0;
+        for (int i = from; i < to; ++i)
+        {
+            lastTick += readVarLong(data);
+            eventTicks[i] = lastTick;
+            int f = data.readUnsignedByte();
+            if ((f & WHOLE_AIM) != 0)
+            {
+                long zigzag = readVarLong(data);
+                lastWholeAim += (zigzag >>> 1) ^ -(zigzag & 1);
+                aims[i] = lastWholeAim;
+            }
+            else if ((f & AIM) != 0)
+                aims[i] = data.readDouble();
+            flags[i] = (byte) (f & ~WHOLE_AIM);
+        }
+    }
+    
+    // index of the first event after the given tick
+    int firstEventAfter(long tick)
+    {
+        int i = Arrays.binarySearch(eventTicks, tick);
+        if (i < 0)
+            return -i - 1;
+        while (i < eventTicks.length && eventTicks[i] == tick)
+            ++i;
+        return i;
+    }
+    
+    public byte[] toBytes()
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try
+        {
+            write(out);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e); // never thrown by a byte array
+        }
+        return out.toByteArray();
+    }
+    public static InputLog fromBytes(byte[] bytes) throws IOException
+    {
+        return read(new ByteArrayInputStream(bytes));
+    }
+    
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    private static long readVarLong(DataInputStream in) throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new EOFException("Corrupt recording: number too long");
+    }
+    
+    public String getMode()
+    {
+        return mode;
+    }
+    public long getSeed()
+    {
+        return seed;
+    }
+    public GameConfig getConfig()
+    {
+        return config;
+    }
+    // how many ticks the game lasted, across every Breakout level
+    public long getTicks()
+    {
+        return ticks;
+    }
+    public int getEventCount()
+    {
+        return eventTicks.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package arcade.sim;
+
+import arcade.sprite.Paddle;
+import java.util.Arrays;
+
+/**
+ * The player's Paddle controls, applied once per tick and recorded into an InputLog.
+ * Key and mouse handlers only change the state held here; the game loop hands it to the Paddle
+ * just before each update, so a game depends only on which tick each input arrived at and
+ * plays the same when its InputLog is replayed.
+ * The held keys outlast any one game, so one recorder is kept for the whole window, with a new recording per game.
+ * @author Kevin
+ */
+public class InputRecorder implements PaddleInput
+{
+    private boolean left;
+    private boolean right;
+    private double aim; // mouse X since the last tick, or NaN if the mouse hasn't moved
+    
+    // the current recording, if any
+    private boolean recording;
+    private String mode;
+    private long seed;
+    private GameConfig config;
+    private long[] eventTicks;
+    private byte[] flags;
+    private double[] aims;
+    private int count;
+    private int lastFlags;
+    
+    public InputRecorder()
+    {
+        aim = Double.NaN;
+    }
+    
+    // called by input handlers
+    public void setMoveLeft(boolean left)
+    {
+        this.left = left;
+    }
+    public void setMoveRight(boolean right)
+    {
+        this.right = right;
+    }
+    public void aim(double mouseX)
+    {
+        aim = mouseX;
+    }
+    
+    // starts recording a new game; input from before it started is dropped, except keys still held
+    public void start(String mode, long seed, GameConfig config)
+    {
+        recording = true;
+        this.mode = mode;
+        this.seed = seed;
+        this.config = config;
+        if (eventTicks == null) // kept from one recording to the next, so they stop growing once a game or two in
+        {
+            eventTicks = new long[256];
+            flags = new byte[256];
+            aims = new double[256];
+        }
+        count = 0;
+        lastFlags = 0;
+        aim = Double.NaN;
+    }
+    
+    @Override
+    public void control(Simulation sim, long tick)
+    {
+        Paddle p = sim.getPaddle();
+        int f = (left ? InputLog.LEFT : 0) | (right ? InputLog.RIGHT : 0);
+        if (!Double.isNaN(aim))
+        {
+            p.setX(aim - p.getWidth()/2);
+            f |= InputLog.AIM;
+        }
+        p.setMoveLeft(left);
+        p.setMoveRight(right);
+        
+        if (recording && f != lastFlags)
+        {
+            if (count == eventTicks.length)
+            {
+                eventTicks = Arrays.copyOf(eventTicks, 2*count);
+                flags = Arrays.copyOf(flags, 2*count);
+                aims = Arrays.copyOf(aims, 2*count);
+            }
+            eventTicks[count] = tick;
+            flags[count] = (byte) f;
+            aims[count++] = aim;
+        }
+        lastFlags = f & ~InputLog.AIM; // the mouse moving again is always a change
+        aim = Double.NaN;
+    }
+    
+    // ends the current recording, returning null if there is none
+    // ticks: how many ticks the game lasted
+    public InputLog finish(long ticks)
+    {
+        if (!recording)
+            return null;
+        recording = false;
+        InputLog log = new InputLog(mode, seed, config, ticks, Arrays.copyOf(eventTicks, count),
+                                    Arrays.copyOf(flags, count), Arrays.copyOf(aims, count));
+        return log;
+    }
+    
+    public boolean isRecording()
+    {
+        return recording;
+    }
+}
\ No newline at end of file
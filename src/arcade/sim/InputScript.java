@@ -0,0 +1,124 @@
+package arcade.sim;
+
+import arcade.sprite.Paddle;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A PaddleInput that plays back the Paddle moves written in a script file.
+ * 
+ * A script has one move per line, in tick order; blank lines and lines starting with # are ignored.
+ *   tick left                   start moving left, as if the key were held down
+ *   tick right                  start moving right
+ *   tick stop                   stop moving
+ *   tick aim x                  put the middle of the Paddle at x, a fraction of the width, like the mouse
+ * Ticks count from 1 over the whole run. Several moves can share a tick and are done in order.
+ * @author Kevin
+ */
+public class InputScript implements PaddleInput
+{
+    private static final byte LEFT = 0;
+    private static final byte RIGHT = 1;
+    private static final byte STOP = 2;
+    private static final byte AIM = 3;
+    
+    private final String name;
+    private final long[] ticks;
+    private final byte[] moves;
+    private final double[] aims; // only used by aim moves
+    
+    private InputScript(String name, long[] ticks, byte[] moves, double[] aims)
+    {
+        this.name = name;
+        this.ticks = ticks;
+        this.moves = moves;
+        this.aims = aims;
+    }
+    
+    public static InputScript parse(String name, Reader in) throws IOException
+    {
+        BufferedReader rd = new BufferedReader(in);
+        long[] ticks = new long[64];
+        byte[] moves = new byte[64];
+        double[] aims = new double[64];
+        int count = 0;
+        int lineNum = 0;
+        String line;
+        while ((line = rd.readLine()) != null)
+        {
+            ++lineNum;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] words = line.split("\\s+");
+            try
+            {
+                if (words.length < 2)
+                    throw new IllegalArgumentException("a move needs a tick and an action");
+                long tick = Long.parseLong(words[0]);
+                if (tick < 1 || (count > 0 && tick < ticks[count - 1]))
+                    throw new IllegalArgumentException("ticks must start at 1 and never go back");
+                if (count == ticks.length)
+                {
+                    ticks = Arrays.copyOf(ticks, 2*count);
+                    moves = Arrays.copyOf(moves, 2*count);
+                    aims = Arrays.copyOf(aims, 2*count);
+                }
+                switch (words[1])
+                {
+                    case "left":  moves[count] = LEFT; break;
+                    case "right": moves[count] = RIGHT; break;
+                    case "stop":  moves[count] = STOP; break;
+                    case "aim":
+                        if (words.length != 3)
+                            throw new IllegalArgumentException("aim needs an x value");
+                        moves[count] = AIM;
+                        aims[count] = Double.parseDouble(words[2]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown action " + words[1]);
+                }
+                if (moves[count] != AIM && words.length != 2)
+                    throw new IllegalArgumentException(words[1] + " takes no values");
+                ticks[count++] = tick;
+            }
+            catch (IllegalArgumentException e) // includes NumberFormatException
+            {
+                throw new IOException(name + ", line " + lineNum + ": " + e.getMessage());
+            }
+        }
+        return new InputScript(name, Arrays.copyOf(ticks, count), Arrays.copyOf(moves, count), Arrays.copyOf(aims, count));
+    }
+    
+    @Override
+    public void control(Simulation sim, long tick)
+    {
+        int i = Arrays.binarySearch(ticks, tick);
+        if (i < 0)
+            return;
+        while (i > 0 && ticks[i - 1] == tick) // binary search may land on any of several moves in one tick
+            --i;
+        Paddle p = sim.getPaddle();
+        for (; i < ticks.length && ticks[i] == tick; ++i)
+        {
+            switch (moves[i])
+            {
+                case LEFT:  p.setMoveRight(false); p.setMoveLeft(true); break;
+                case RIGHT: p.setMoveLeft(false); p.setMoveRight(true); break;
+                case STOP:  p.setMoveLeft(false); p.setMoveRight(false); break;
+                case AIM:   p.setX(aims[i]*sim.getWorld().getWidth() - p.getWidth()/2); break;
+            }
+        }
+    }
+    
+    public String getName()
+    {
+        return name;
+    }
+    public int getMoveCount()
+    {
+        return ticks.length;
+    }
+}
\ No newline at end of file
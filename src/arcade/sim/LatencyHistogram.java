@@ -0,0 +1,109 @@
+package arcade.sim;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in nanoseconds so their percentiles can be read at any time.
+ * Durations are counted in buckets that grow with the duration, each about 3% wide,
+ * so percentiles are within about 3% of the true value; the maximum is exact.
+ * Recording is one atomic add on a fixed array, so it never locks or allocates
+ * and can be read from another thread while the game thread records.
+ * @author Kevin
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BITS = 5; // 32 buckets for every power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40; // about 18 minutes; longer durations count as this
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong total;
+    private final AtomicLong max;
+    
+    public LatencyHistogram()
+    {
+        counts = new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2)*SUB_BUCKETS);
+        count = new AtomicLong();
+        total = new AtomicLong();
+        max = new AtomicLong();
+    }
+    
+    public void record(long nanos)
+    {
+        long v = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(bucket(v));
+        count.incrementAndGet();
+        total.addAndGet(v);
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v))
+            m = max.get();
+    }
+    
+    private static int bucket(long v)
+    {
+        if (v < SUB_BUCKETS)
+            return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        return (exponent - SUB_BITS + 1)*SUB_BUCKETS + (int) ((v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+    // largest duration counted in a bucket
+    private static long highest(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket/SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+    
+    // the duration that percent of recorded durations are at or below, e.g. 99 for p99, in nanoseconds
+    // returns 0 if nothing has been recorded
+    public long getPercentile(double percent)
+    {
+        long n = count.get();
+        if (n == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(percent / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); ++i)
+        {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(highest(i), max.get());
+        }
+        return max.get();
+    }
+    public long getCount()
+    {
+        return count.get();
+    }
+    public long getMax()
+    {
+        return max.get();
+    }
+    public double getMean()
+    {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+    
+    // forgets every recorded duration, e.g. between benchmark runs
+    public void reset()
+    {
+        for (int i = 0; i < counts.length(); ++i)
+            counts.set(i, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+    
+    // p50/p99/max in milliseconds, for display
+    public String summary()
+    {
+        return String.format(java.util.Locale.ROOT, "%.3f/%.3f/%.3f ms",
+                             getPercentile(50) / 1e6, getPercentile(99) / 1e6, getMax() / 1e6);
+    }
+}
\ No newline at end of file
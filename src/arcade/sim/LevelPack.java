@@ -0,0 +1,158 @@
+package arcade.sim;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A set of Breakout level files, read from a directory, a zip file, or the levels built into the program.
+ * Opening a pack only finds its first level; each level file is read and parsed the first time it is played,
+ * so large packs open as quickly as small ones.
+ * A level's name is its file name without ".lvl", and a pack starts at the level whose name sorts first.
+ * The next level can be prepared on a background thread while the current one is played.
+ * @author Kevin
+ */
+public class LevelPack implements Closeable
+{
+    public static final String EXTENSION = ".lvl";
+    public static final String BUILT_IN_PATH = "/arcade/files/levels/";
+    public static final String BUILT_IN_FIRST = "level1";
+    
+    // one thread shared by all packs; only one level is prepared at a time
+    private static final ExecutorService PRELOADER = Executors.newSingleThreadExecutor(r ->
+    {
+        Thread thread = new Thread(r, "Level preloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // opens a level file by name, or returns null if there is none
+    private interface Opener
+    {
+        public InputStream open(String name) throws IOException;
+    }
+    
+    private final String source;
+    private final String firstLevel;
+    private final Opener opener;
+    private final ZipFile zip; // null unless read from a zip file
+    private final HashMap<String, BreakoutLevelData> levels; // every level read so far
+    
+    private LevelPack(String source, String firstLevel, Opener opener, ZipFile zip)
+    {
+        this.source = source;
+        this.firstLevel = firstLevel;
+        this.opener = opener;
+        this.zip = zip;
+        levels = new HashMap<>();
+    }
+    
+    // the levels that come with the program
+    public static LevelPack builtIn()
+    {
+        return new LevelPack("built-in levels", BUILT_IN_FIRST,
+                             name -> LevelPack.class.getResourceAsStream(BUILT_IN_PATH + name + EXTENSION), null);
+    }
+    
+    // a directory or zip file of level files
+    public static LevelPack open(File file) throws IOException
+    {
+        String first = null;
+        if (file.isDirectory())
+        {
+            String[] names = file.list();
+            if (names != null)
+                for (String n : names)
+                    first = firstName(first, n);
+            if (first == null)
+                throw new IOException("No level files in " + file);
+            return new LevelPack(file.getPath(), first, name ->
+            {
+                File f = new File(file, name + EXTENSION);
+                return f.isFile() ? new FileInputStream(f) : null;
+            }, null);
+        }
+        
+        // only the zip's directory is read here, not the level files in it
+        ZipFile zip = new ZipFile(file);
+        for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();)
+        {
+            ZipEntry entry = e.nextElement();
+            if (!entry.isDirectory())
+                first = firstName(first, entry.getName());
+        }
+        if (first == null)
+        {
+            zip.close();
+            throw new IOException("No level files in " + file);
+        }
+        return new LevelPack(file.getPath(), first, name ->
+        {
+            ZipEntry entry = zip.getEntry(name + EXTENSION);
+            return entry == null ? null : zip.getInputStream(entry);
+        }, zip);
+    }
+    
+    // returns whichever level name sorts first, ignoring files that are not levels
+    private static String firstName(String first, String fileName)
+    {
+        if (!fileName.endsWith(EXTENSION) || fileName.contains("/"))
+            return first;
+        String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+        return first == null || name.compareTo(first) < 0 ? name : first;
+    }
+    
+    // reads the level the first time it is asked for
+    public synchronized BreakoutLevelData getLevel(String name) throws IOException
+    {
+        BreakoutLevelData lvl = levels.get(name);
+        if (lvl == null)
+        {
+            InputStream in = opener.open(name);
+            if (in == null)
+                throw new IOException("No level " + name + " in " + source);
+            try (InputStreamReader rd = new InputStreamReader(in, StandardCharsets.UTF_8))
+            {
+                lvl = BreakoutLevelData.parse(name, rd);
+            }
+            levels.put(name, lvl);
+        }
+        return lvl;
+    }
+    // reads the level and builds its game logic on the preloader thread
+    // score and lives are set with carryOver once the previous level ends
+    public Future<BreakoutSimulation> prepare(String name, World world)
+    {
+        return PRELOADER.submit(() -> getLevel(name).createSimulation(world, 0, 0));
+    }
+    public BreakoutLevelData getFirstLevel() throws IOException
+    {
+        return getLevel(firstLevel);
+    }
+    public String getFirstLevelName()
+    {
+        return firstLevel;
+    }
+    public String getSource()
+    {
+        return source;
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        if (zip != null)
+            zip.close();
+    }
+}
\ No newline at end of file
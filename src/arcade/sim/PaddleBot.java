@@ -0,0 +1,53 @@
+package arcade.sim;
+
+import arcade.sprite.Ball;
+import arcade.sprite.Paddle;
+
+/**
+ * A PaddleInput that plays by itself.
+ * Every tick it picks the falling Ball that will reach the Paddle first, works out where
+ * that Ball will cross the Paddle's height after bouncing off the side walls, and moves toward it.
+ * It plays with the same Paddle speed as a player on the keyboard.
+ * @author Kevin
+ */
+public class PaddleBot implements PaddleInput
+{
+    public static final PaddleBot INSTANCE = new PaddleBot();
+    
+    @Override
+    public void control(Simulation sim, long tick)
+    {
+        Paddle p = sim.getPaddle();
+        double width = sim.getWorld().getWidth();
+        double target = width / 2; // wait in the middle when nothing is falling
+        double soonest = Double.MAX_VALUE;
+        for (int i = 0; i < sim.getBallCount(); ++i)
+        {
+            Ball b = sim.getBall(i);
+            double bottom = b.getY() + 2*b.getRadius();
+            if (b.getDeltaY() <= 0 || bottom > p.getY())
+                continue;
+            double ticks = (p.getY() - bottom) / b.getDeltaY();
+            if (ticks < soonest)
+            {
+                soonest = ticks;
+                target = landingX(b.getX() + b.getDeltaX()*ticks, width - 2*b.getRadius()) + b.getRadius();
+            }
+        }
+        
+        double center = p.getX() + p.getWidth()/2;
+        p.setMoveLeft(target < center - p.getSpeed());
+        p.setMoveRight(target > center + p.getSpeed());
+    }
+    
+    // folds an unbounded x back into [0, span], as bouncing between the side walls would
+    private static double landingX(double x, double span)
+    {
+        if (span <= 0)
+            return 0;
+        double folded = x % (2*span);
+        if (folded < 0)
+            folded += 2*span;
+        return folded <= span ? folded : 2*span - folded;
+    }
+}
\ No newline at end of file
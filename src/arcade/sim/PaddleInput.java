@@ -0,0 +1,12 @@
+package arcade.sim;
+
+/**
+ * Steers the Paddle of a game run without a window, in place of the keyboard and mouse.
+ * Implementations keep no state between calls, so one can steer any number of games at once.
+ * @author Kevin
+ */
+public interface PaddleInput
+{
+    // called before every update; tick counts updates from 1 over the whole run, across Breakout levels
+    public void control(Simulation sim, long tick);
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+package arcade.sim;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A recorded game saved so it can be watched from any tick without replaying everything before it.
+ * 
+ * The file is a run of segments, one for every KEYFRAME_TICKS of game time. Each holds a keyframe,
+ * the whole HeadlessGame state at the segment's first tick, followed by the input for the ticks after it,
+ * both deflated. A footer holds the game's mode, seed, GameConfig, and length, and an index of where
+ * every segment starts; the last 12 bytes give the footer's position and mark the file as complete.
+ * 
+ * Archives are opened memory-mapped, so seeking only reads the one keyframe it starts from:
+ * it restores that keyframe and simulates forward at most KEYFRAME_TICKS ticks.
+ * An open archive never changes, so it can be read from several threads.
+ * @author Kevin
+ */
+public class ReplayArchive
+{
+    public static final int MAGIC = 0x41524341; // "ARCA"
+    public static final int VERSION = 1;
+    public static final long KEYFRAME_TICKS = 5*Simulation.TICKS_PER_SECOND;
+    private static final int HEADER_LENGTH = 5;
+    private static final int TRAILER_LENGTH = 12;
+    
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final String mode;
+    private final long seed;
+    private final GameConfig config;
+    private final long ticks;
+    private final long[] keyframeTicks;
+    private final int[] keyframeOffsets;
+    private final int[] keyframeLengths;
+    private final int[] inputOffsets;
+    private final int[] inputLengths;
+    private final int[] eventCounts;
+    private InputLog log; // put together from every segment's input the first time it's needed
+    
+    private ReplayArchive(File file, MappedByteBuffer buffer, DataInputStream footer) throws IOException
+    {
+        this.file = file;
+        this.buffer = buffer;
+        mode = footer.readUTF();
+        seed = footer.readLong();
+        config = GameConfig.read(footer);
+        ticks = footer.readLong();
+        int count = footer.readInt();
+        keyframeTicks = new long[count];
+        keyframeOffsets = new int[count];
+        keyframeLengths = new int[count];
+        inputOffsets = new int[count];
+        inputLengths = new int[count];
+        eventCounts = new int[count];
+        for (int i = 0; i < count; ++i)
+        {
+            keyframeTicks[i] = footer.readLong();
+            keyframeOffsets[i] = footer.readInt();
+            keyframeLengths[i] = footer.readInt();
+            inputOffsets[i] = footer.readInt();
+            inputLengths[i] = footer.readInt();
+            eventCounts[i] = footer.readInt();
+            if (keyframeOffsets[i] < HEADER_LENGTH || keyframeOffsets[i] + (long) keyframeLengths[i] > buffer.capacity()
+             || inputOffsets[i] < HEADER_LENGTH || inputOffsets[i] + (long) inputLengths[i] > buffer.capacity()
+             || (i > 0 && keyframeTicks[i] <= keyframeTicks[i - 1]))
+                throw new IOException(file + ": corrupt segment index");
+        }
+        if (count == 0 || keyframeTicks[0] != 0)
+            throw new IOException(file + ": no keyframe at the start");
+    }
+    
+    // plays the recorded game through once, writing a keyframe every KEYFRAME_TICKS ticks
+    // pack: the level pack the game was played with, for Breakout
+    public static void write(File file, InputLog log, LevelPack pack) throws IOException
+    {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream entries = new DataOutputStream(index);
+            int count = 0;
+            HeadlessGame game = new HeadlessGame(log.getMode(), log.getSeed(), log.getConfig(), pack, log);
+            int firstEvent = 0;
+            while (true)
+            {
+                long start = game.getTicks();
+                long end = Math.min(start + KEYFRAME_TICKS, log.getTicks());
+                int lastEvent = log.firstEventAfter(end);
+                entries.writeLong(start);
+                entries.writeInt(out.size());
+                entries.writeInt(writeDeflated(out, data -> game.writeState(data)));
+                entries.writeInt(out.size());
+                int from = firstEvent;
+                entries.writeInt(writeDeflated(out, data -> log.writeEvents(data, from, lastEvent, start)));
+                entries.writeInt(lastEvent - firstEvent);
+                ++count;
+                firstEvent = lastEvent;
+                
+                while (game.getTicks() < end)
+                    if (!game.step())
+                        break;
+                if (game.getTicks() < end || end == log.getTicks())
+                    break; // every tick has been recorded
+            }
+            
+            // footer, then where it starts so readers can find it from the end of the file
+            int footer = out.size();
+            out.writeUTF(log.getMode());
+            out.writeLong(log.getSeed());
+            log.getConfig().write(out);
+            out.writeLong(log.getTicks());
+            out.writeInt(count);
+            index.writeTo(out);
+            out.writeLong(footer);
+            out.writeInt(MAGIC);
+            if (out.size() == Integer.MAX_VALUE)
+                throw new IOException("Replay too long to archive: " + file);
+        }
+        try
+        {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    // part of a segment, written through a deflater
+    private interface Section
+    {
+        public void write(DataOutputStream data) throws IOException;
+    }
+    // returns the number of bytes written
+    private static int writeDeflated(DataOutputStream out, Section section) throws IOException
+    {
+        int start = out.size();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        DataOutputStream data = new DataOutputStream(deflater);
+        section.write(data);
+        data.flush();
+        deflater.finish(); // leaves out open for the next section
+        return out.size() - start;
+    }
+    
+    public static ReplayArchive open(File file) throws IOException
+    {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(file + ": too large to be a replay archive");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid after closing
+        }
+        int size = buffer.capacity();
+        if (size < HEADER_LENGTH + TRAILER_LENGTH || buffer.getInt(0) != MAGIC)
+            throw new IOException(file + ": not a replay archive");
+        if (buffer.get(4) != VERSION)
+            throw new IOException(file + ": unsupported replay archive version " + buffer.get(4));
+        if (buffer.getInt(size - 4) != MAGIC)
+            throw new IOException(file + ": incomplete replay archive");
+        long footer = buffer.getLong(size - TRAILER_LENGTH);
+        if (footer < HEADER_LENGTH || footer > size - TRAILER_LENGTH)
+            throw new IOException(file + ": corrupt replay archive footer");
+        return new ReplayArchive(file, buffer, new DataInputStream(read(buffer, (int) footer, size - TRAILER_LENGTH - (int) footer)));
+    }
+    
+    private static InputStream read(ByteBuffer buffer, int offset, int length)
+    {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate(); // own position, so threads can read at once
+        view.position(offset);
+        view.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+    
+    // the game as it was at the given tick, restored from the nearest keyframe before it
+    // pack: the level pack the game was played with, for Breakout
+    public HeadlessGame seek(long tick, LevelPack pack) throws IOException
+    {
+        tick = Math.max(0, Math.min(tick, ticks));
+        int i = Arrays.binarySearch(keyframeTicks, tick);
+        if (i < 0)
+            i = -i - 2;
+        HeadlessGame game = new HeadlessGame(mode, seed, config, pack, getLog());
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(read(buffer, keyframeOffsets[i], keyframeLengths[i]))))
+        {
+            game.readState(in);
+        }
+        while (game.getTicks() < tick)
+            if (!game.step())
+                break;
+        return game;
+    }
+    
+    // the whole game's input, for replaying it from the start
+    public synchronized InputLog getLog() throws IOException
+    {
+        if (log != null)
+            return log;
+        int total = 0;
+        for (int count : eventCounts)
+            total += count;
+        long[] eventTicks = new long[total];
+        byte[] flags = new byte[total];
+        double[] aims = new double[total];
+        int from = 0;
+        for (int i = 0; i < eventCounts.length; ++i)
+        {
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(read(buffer, inputOffsets[i], inputLengths[i]))))
+            {
+                InputLog.readEvents(in, eventTicks, flags, aims, from, from + eventCounts[i], keyframeTicks[i]);
+            }
+            from += eventCounts[i];
+        }
+        log = new InputLog(mode, seed, config, ticks, eventTicks, flags, aims);
+        return log;
+    }
+    
+    public File getFile()
+    {
+        return file;
+    }
+    public String getMode()
+    {
+        return mode;
+    }
+    public long getSeed()
+    {
+        return seed;
+    }
+    public GameConfig getConfig()
+    {
+        return config;
+    }
+    public long getTicks()
+    {
+        return ticks;
+    }
+    public int getKeyframeCount()
+    {
+        return keyframeTicks.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package arcade.sim;
+
+import java.io.IOException;
+
+/**
+ * The last few seconds of a Simulation's full state, one frame per tick, for rewinding time.
+ * The newest frame is kept whole. Every older frame is kept only as its difference from the frame after it:
+ * the two frames' bytes XORed together, with runs of unchanged bytes shortened to their length.
+ * Stepping back XORs the newest difference into the newest frame, which gives the frame before it.
+ * 
+ * The differences are written into one byte array allocated up front, used as a ring;
+ * when it fills up, or MAX_SECONDS of frames are held, the oldest frames are dropped.
+ * Memory use never grows past the ring and two frames, and taking a frame allocates nothing
+ * once the frame buffers have grown to fit the Simulation, however many balls it has.
+ * @author Kevin
+ */
+public class RewindBuffer
+{
+    public static final int MAX_SECONDS = 10;
+    public static final int DEFAULT_CAPACITY = 16 << 20; // bytes of differences
+    
+    private final byte[] ring;
+    private final long[] starts; // where each difference starts in the ring, counting every byte ever written
+    private final long[] frameTicks; // the tick of the frame each difference gives back
+    private int first; // index of the oldest difference
+    private int count;
+    private long end; // where the next difference starts
+    private StateBuffer newest; // the latest frame, whole
+    private StateBuffer scratch;
+    private long newestTick;
+    private boolean empty;
+    
+    public RewindBuffer()
+    {
+        this(MAX_SECONDS*Simulation.TICKS_PER_SECOND, DEFAULT_CAPACITY);
+    }
+    // maxFrames: most frames before the newest one that are kept
+    // capacity: bytes the differences between frames may take up
+    public RewindBuffer(int maxFrames, int capacity)
+    {
+        ring = new byte[capacity];
+        starts = new long[maxFrames];
+        frameTicks = new long[maxFrames];
+        newest = new StateBuffer(4096);
+        scratch = new StateBuffer(4096);
+        clear();
+    }
+    
+    // forgets every frame, e.g. when a new Level starts
+    public void clear()
+    {
+        first = 0;
+        count = 0;
+        end = 0;
+        empty = true;
+    }
+    
+    // takes a frame of the Simulation's state at the given tick
+    public void capture(Simulation sim, long tick) throws IOException
+    {
+        scratch.clear();
+        sim.writeState(scratch);
+        if (!empty)
+            push();
+        StateBuffer t = newest;
+        newest = scratch;
+        scratch = t;
+        newestTick = tick;
+        empty = false;
+    }
+    
+    // restores the Simulation to the frame before the newest one, which becomes the newest
+    // returns that frame's tick, or -1 if there are no earlier frames left
+    public long rewind(Simulation sim) throws IOException
+    {
+        if (count == 0)
+            return -1;
+        int last = (first + count - 1) % starts.length;
+        end = starts[last];
+        decode(end);
+        --count;
+        StateBuffer t = newest;
+        newest = scratch;
+        scratch = t;
+        newestTick = frameTicks[last];
+        newest.rewind();
+        sim.readState(newest);
+        return newestTick;
+    }
+    
+    // writes the difference that turns scratch, the frame just taken, back into newest
+    private void push()
+    {
+        int oldLength = newest.getLength();
+        int newLength = scratch.getLength();
+        int span = Math.max(oldLength, newLength);
+        long worst = 5 + span + 10L*(span/2 + 1); // every other byte changed
+        if (worst > ring.length)
+        {
+            clear(); // a frame this large can't be stepped back from
+            return;
+        }
+        while (count > 0 && (count == starts.length || end + worst - starts[first] > ring.length))
+        {
+            first = (first + 1) % starts.length;
+            --count;
+        }
+        if (count == 0)
+            end = 0;
+        int index = (first + count) % starts.length;
+        starts[index] = end;
+        frameTicks[index] = newestTick;
+        ++count;
+        
+        byte[] a = newest.getBytes();
+        byte[] b = scratch.getBytes();
+        putVarint(oldLength);
+        int i = 0;
+        while (i < oldLength)
+        {
+            // a run of unchanged bytes, then a run of changed ones
+            int unchanged = i;
+            while (unchanged < oldLength && a[unchanged] == (unchanged < newLength ? b[unchanged] : 0))
+                ++unchanged;
+            int changed = unchanged;
+            while (changed < oldLength && a[changed] != (changed < newLength ? b[changed] : 0))
+                ++changed;
+            putVarint(unchanged - i);
+            putVarint(changed - unchanged);
+            for (int j = unchanged; j < changed; ++j)
+                put((byte) (a[j] ^ (j < newLength ? b[j] : 0)));
+            i = changed;
+        }
+    }
+    
+    // fills scratch with the frame before newest, from the difference starting at pos
+    private void decode(long pos)
+    {
+        int newLength = newest.getLength();
+        byte[] b = newest.getBytes();
+        int oldLength = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            byte v = ring[(int) (pos++ % ring.length)];
+            oldLength |= (v & 0x7F) << shift;
+            if (v >= 0)
+                break;
+        }
+        scratch.setLength(oldLength);
+        byte[] a = scratch.getBytes();
+        int i = 0;
+        while (i < oldLength)
+        {
+            int unchanged = 0;
+            for (int shift = 0; ; shift += 7)
+            {
+                byte v = ring[(int) (pos++ % ring.length)];
+                unchanged |= (v & 0x7F) << shift;
+                if (v >= 0)
+                    break;
+            }
+            int changed = 0;
+            for (int shift = 0; ; shift += 7)
+            {
+                byte v = ring[(int) (pos++ % ring.length)];
+                changed |= (v & 0x7F) << shift;
+                if (v >= 0)
+                    break;
+            }
+            for (int j = i + unchanged; i < j; ++i)
+                a[i] = i < newLength ? b[i] : 0;
+            for (int j = i + changed; i < j; ++i)
+                a[i] = (byte) ((i < newLength ? b[i] : 0) ^ ring[(int) (pos++ % ring.length)]);
+        }
+    }
+    
+    private void put(byte v)
+    {
+        ring[(int) (end++ % ring.length)] = v;
+    }
+    private void putVarint(int v)
+    {
+        while ((v & ~0x7F) != 0)
+        {
+            put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        put((byte) v);
+    }
+    
+    // frames that can still be stepped back to
+    public int getFrames()
+    {
+        return count;
+    }
+    // bytes of the ring holding differences
+    public long getBytesUsed()
+    {
+        return count == 0 ? 0 : end - starts[first];
+    }
+    public long getNewestTick()
+    {
+        return newestTick;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package arcade.sim;
+
+import java.util.Locale;
+
+/**
+ * The outcome of one GameRun.
+ * @author Kevin
+ */
+public class RunResult
+{
+    private final int index;
+    private final String mode;
+    private final long seed;
+    private final long ticks;
+    private final boolean finished;
+    private final Integer score; // null for modes without scoring
+    private final int drops;
+    private final int blocksBroken;
+    private final int levelNum; // the last Breakout level played, 0 for other modes
+    
+    public RunResult(int index, String mode, long seed, long ticks, boolean finished, Integer score,
+                     int drops, int blocksBroken, int levelNum)
+    {
+        this.index = index;
+        this.mode = mode;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.finished = finished;
+        this.score = score;
+        this.drops = drops;
+        this.blocksBroken = blocksBroken;
+        this.levelNum = levelNum;
+    }
+    
+    // one line of JSON, as written to a JSON Lines file
+    public String toJson()
+    {
+        return String.format(Locale.ROOT,
+                "{\"run\":%d,\"mode\":\"%s\",\"seed\":%d,\"ticks\":%d,\"seconds\":%.3f,\"finished\":%b,"
+              + "\"score\":%s,\"drops\":%d,\"blocksBroken\":%d,\"level\":%d}",
+                index, mode, seed, ticks, (double) ticks / Simulation.TICKS_PER_SECOND, finished,
+                score, drops, blocksBroken, levelNum);
+    }
+    
+    public int getIndex()
+    {
+        return index;
+    }
+    public String getMode()
+    {
+        return mode;
+    }
+    public long getSeed()
+    {
+        return seed;
+    }
+    public long getTicks()
+    {
+        return ticks;
+    }
+    // whether the game ended by itself rather than at the tick limit
+    public boolean isFinished()
+    {
+        return finished;
+    }
+    public Integer getScore()
+    {
+        return score;
+    }
+    public int getDrops()
+    {
+        return drops;
+    }
+    public int getBlocksBroken()
+    {
+        return blocksBroken;
+    }
+    public int getLevelNum()
+    {
+        return levelNum;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package arcade.sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named save state slots for each game mode, kept on disk so they last between sessions,
+ * e.g. slot 3 of Breakout is "Breakout Save 3.state".
+ * Saving keeps the Snapshot in memory straight away and writes its file on a background thread,
+ * so the game never waits on the disk; loading a slot reads its file only the first time.
+ * @author Kevin
+ */
+public class SaveSlots implements Closeable
+{
+    public static final String EXTENSION = ".state";
+    public static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    
+    private final File dir;
+    private final ConcurrentHashMap<File, Snapshot> slots;
+    private final ExecutorService writer;
+    
+    // dir: where slot files are kept
+    public SaveSlots(File dir)
+    {
+        this.dir = dir;
+        slots = new ConcurrentHashMap<>();
+        writer = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread thread = new Thread(r, "Save state writer");
+            thread.setDaemon(true); // close() finishes waiting writes first
+            return thread;
+        });
+    }
+    
+    public File getFile(String mode, String slot)
+    {
+        return new File(dir, Character.toUpperCase(mode.charAt(0)) + mode.substring(1) + " Save " + slot + EXTENSION);
+    }
+    
+    // keeps the snapshot in the slot of its game mode, replacing what was there
+    public void save(String slot, Snapshot snapshot)
+    {
+        File f = getFile(snapshot.getMode(), slot);
+        slots.put(f, snapshot);
+        writer.execute(() ->
+        {
+            if (slots.get(f) != snapshot) // already replaced by a later save
+                return;
+            File tmp = new File(f.getPath() + ".tmp");
+            try
+            {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+                {
+                    snapshot.write(out);
+                }
+                try
+                {
+                    Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+                catch (AtomicMoveNotSupportedException e)
+                {
+                    Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not save state to " + f + ": " + e);
+            }
+        });
+    }
+    
+    // returns the snapshot in the slot, or null if the slot is empty
+    public Snapshot load(String mode, String slot) throws IOException
+    {
+        File f = getFile(mode, slot);
+        Snapshot snapshot = slots.get(f);
+        if (snapshot != null || !f.exists())
+            return snapshot;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f))))
+        {
+            snapshot = Snapshot.read(in);
+        }
+        slots.putIfAbsent(f, snapshot);
+        return slots.get(f);
+    }
+    
+    // writes every waiting slot, then stops the writer thread
+    @Override
+    public void close()
+    {
+        writer.shutdown();
+        try
+        {
+            writer.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package arcade.sim;
+
+/**
+ * Defines the game logic of a Level with scoring.
+ * @author Kevin
+ */
+public interface ScoringSimulation extends Simulation
+{
+    public int getScore();
+}
@@ -0,0 +1,41 @@
+package arcade.sim;
+
+import arcade.sprite.Ball;
+import arcade.sprite.Paddle;
+import arcade.trace.TraceRecorder;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Defines the game logic of a Level, separate from drawing and input.
+ * Contains no JavaFX types, so it can be run without a window.
+ * @author Kevin
+ */
+public interface Simulation
+{
+    // updates per second of game time, however fast the game is actually run
+    public static final int TICKS_PER_SECOND = 120;
+    
+    // advances the game by one tick
+    public void update(double timeElapsed);
+    public boolean isOver();
+    
+    // the whole game state, for keyframes and save states; read back into a Simulation
+    // of the same game mode and level, with the same GameConfig, it continues exactly as this one would
+    public void writeState(DataOutput out) throws IOException;
+    public void readState(DataInput in) throws IOException;
+    
+    // records the collision phase and timed events of each update as spans; TraceRecorder.OFF until set
+    public void setTrace(TraceRecorder trace);
+    
+    public World getWorld();
+    public Paddle getPaddle();
+    // Balls currently in play, by index so they can be read without allocating
+    public int getBallCount();
+    public Ball getBall(int i);
+    public int getBlockCount();
+    public int getDrops();
+    // collision tests made in the last update, for diagnostics
+    public int getCollisionTests();
+}
@@ -0,0 +1,111 @@
+package arcade.sim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A Level's whole state at one moment: its Simulation's sprites and counters, and the game clock.
+ * The state is kept in the Simulation's own binary form, so taking or restoring a snapshot is one
+ * writeState or readState over a byte array, and a snapshot never changes once taken.
+ * 
+ * A snapshot is written as MAGIC, VERSION, the game mode, the level number, the GameConfig,
+ * the tick, then the length of the state and the state itself. It can only be restored into
+ * the same mode and level, played with the same settings.
+ * @author Kevin
+ */
+public final class Snapshot
+{
+    public static final int MAGIC = 0x41524353; // "ARCS"
+    public static final int VERSION = 1;
+    
+    private final String mode;
+    private final int levelNum;
+    private final GameConfig config;
+    private final long ticks;
+    private final byte[] state;
+    
+    private Snapshot(String mode, int levelNum, GameConfig config, long ticks, byte[] state)
+    {
+        this.mode = mode;
+        this.levelNum = levelNum;
+        this.config = config;
+        this.ticks = ticks;
+        this.state = state;
+    }
+    
+    // mode: one of the GameRun modes
+    // levelNum: the Breakout level number, or 1 for standalone modes
+    // ticks: game time of the Level
+    public static Snapshot take(String mode, int levelNum, Simulation sim, long ticks) throws IOException
+    {
+        StateBuffer buf = new StateBuffer(1024);
+        sim.writeState(buf);
+        return new Snapshot(mode, levelNum, sim.getWorld().getConfig(), ticks, Arrays.copyOf(buf.getBytes(), buf.getLength()));
+    }
+    
+    // puts the Simulation back into this snapshot's state
+    // throws IllegalArgumentException if the snapshot was taken in another mode, level, or setting
+    public void restore(String mode, int levelNum, Simulation sim) throws IOException
+    {
+        if (!this.mode.equals(mode) || this.levelNum != levelNum)
+            throw new IllegalArgumentException("Snapshot is of " + this.mode + " level " + this.levelNum
+                                             + ", not " + mode + " level " + levelNum);
+        if (!config.equals(sim.getWorld().getConfig()))
+            throw new IllegalArgumentException("Snapshot was taken with different settings");
+        sim.readState(new StateBuffer(state, state.length));
+    }
+    
+    public void write(DataOutput out) throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(mode);
+        out.writeInt(levelNum);
+        config.write(out);
+        out.writeLong(ticks);
+        out.writeInt(state.length);
+        out.write(state);
+    }
+    public static Snapshot read(DataInput in) throws IOException
+    {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a snapshot");
+        int version = in.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported snapshot version " + version);
+        String mode = in.readUTF();
+        int levelNum = in.readInt();
+        GameConfig config = GameConfig.read(in);
+        long ticks = in.readLong();
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("Corrupt snapshot");
+        byte[] state = new byte[length];
+        in.readFully(state);
+        return new Snapshot(mode, levelNum, config, ticks, state);
+    }
+    
+    public String getMode()
+    {
+        return mode;
+    }
+    public int getLevelNum()
+    {
+        return levelNum;
+    }
+    public GameConfig getConfig()
+    {
+        return config;
+    }
+    public long getTicks()
+    {
+        return ticks;
+    }
+    // bytes of Simulation state
+    public int getSize()
+    {
+        return state.length;
+    }
+}
\ No newline at end of file
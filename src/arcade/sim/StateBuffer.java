@@ -0,0 +1,263 @@
+package arcade.sim;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A reusable byte array that a Simulation's state is written to and read back from.
+ * Unlike a ByteArrayOutputStream wrapped in a DataOutputStream, writing and reading never allocate
+ * once the array has grown to fit the largest state, so states can be taken every tick.
+ * Only writeUTF allocates, for the rare state holding a String.
+ * @author Kevin
+ */
+public class StateBuffer implements DataOutput, DataInput
+{
+    private byte[] bytes;
+    private int length; // bytes written
+    private int position; // next byte to read
+    
+    public StateBuffer(int capacity)
+    {
+        bytes = new byte[Math.max(capacity, 16)];
+    }
+    // reads a state already in the given array, without copying it
+    public StateBuffer(byte[] bytes, int length)
+    {
+        this.bytes = bytes;
+        this.length = length;
+    }
+    
+    // empties the buffer to write a new state
+    public void clear()
+    {
+        length = 0;
+        position = 0;
+    }
+    // starts reading again from the first byte
+    public void rewind()
+    {
+        position = 0;
+    }
+    // makes room for length bytes, keeping the first ones, and sets the length; used to fill the array directly
+    public void setLength(int length)
+    {
+        ensureCapacity(length);
+        this.length = length;
+        position = 0;
+    }
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity > bytes.length)
+        {
+            byte[] larger = new byte[Math.max(capacity, bytes.length*2)];
+            System.arraycopy(bytes, 0, larger, 0, length);
+            bytes = larger;
+        }
+    }
+    // the backing array, valid up to getLength(); replaced when the buffer grows
+    public byte[] getBytes()
+    {
+        return bytes;
+    }
+    public int getLength()
+    {
+        return length;
+    }
+    
+    @Override
+    public void write(int b)
+    {
+        ensureCapacity(length + 1);
+        bytes[length++] = (byte) b;
+    }
+    @Override
+    public void write(byte[] b)
+    {
+        write(b, 0, b.length);
+    }
+    @Override
+    public void write(byte[] b, int off, int len)
+    {
+        ensureCapacity(length + len);
+        System.arraycopy(b, off, bytes, length, len);
+        length += len;
+    }
+    @Override
+    public void writeBoolean(boolean v)
+    {
+        write(v ? 1 : 0);
+    }
+    @Override
+    public void writeByte(int v)
+    {
+        write(v);
+    }
+    @Override
+    public void writeShort(int v)
+    {
+        ensureCapacity(length + 2);
+        bytes[length++] = (byte) (v >>> 8);
+        bytes[length++] = (byte) v;
+    }
+    @Override
+    public void writeChar(int v)
+    {
+        writeShort(v);
+    }
+    @Override
+    public void writeInt(int v)
+    {
+        ensureCapacity(length + 4);
+        for (int shift = 24; shift >= 0; shift -= 8)
+            bytes[length++] = (byte) (v >>> shift);
+    }
+    @Override
+    public void writeLong(long v)
+    {
+        ensureCapacity(length + 8);
+        for (int shift = 56; shift >= 0; shift -= 8)
+            bytes[length++] = (byte) (v >>> shift);
+    }
+    @Override
+    public void writeFloat(float v)
+    {
+        writeInt(Float.floatToIntBits(v));
+    }
+    @Override
+    public void writeDouble(double v)
+    {
+        writeLong(Double.doubleToLongBits(v));
+    }
+    @Override
+    public void writeBytes(String s)
+    {
+        for (int i = 0; i < s.length(); ++i)
+            write(s.charAt(i));
+    }
+    @Override
+    public void writeChars(String s)
+    {
+        for (int i = 0; i < s.length(); ++i)
+            writeChar(s.charAt(i));
+    }
+    @Override
+    public void writeUTF(String s) throws IOException
+    {
+        ByteArrayOutputStream utf = new ByteArrayOutputStream();
+        new DataOutputStream(utf).writeUTF(s);
+        write(utf.toByteArray());
+    }
+    
+    private void need(int count) throws EOFException
+    {
+        if (position + count > length)
+            throw new EOFException("State ends after " + length + " bytes");
+    }
+    @Override
+    public void readFully(byte[] b) throws IOException
+    {
+        readFully(b, 0, b.length);
+    }
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException
+    {
+        need(len);
+        System.arraycopy(bytes, position, b, off, len);
+        position += len;
+    }
+    @Override
+    public int skipBytes(int n)
+    {
+        int skipped = Math.max(0, Math.min(n, length - position));
+        position += skipped;
+        return skipped;
+    }
+    @Override
+    public boolean readBoolean() throws IOException
+    {
+        return readByte() != 0;
+    }
+    @Override
+    public byte readByte() throws IOException
+    {
+        need(1);
+        return bytes[position++];
+    }
+    @Override
+    public int readUnsignedByte() throws IOException
+    {
+        return readByte() & 0xFF;
+    }
+    @Override
+    public short readShort() throws IOException
+    {
+        return (short) readUnsignedShort();
+    }
+    @Override
+    public int readUnsignedShort() throws IOException
+    {
+        need(2);
+        int v = (bytes[position] & 0xFF) << 8 | (bytes[position + 1] & 0xFF);
+        position += 2;
+        return v;
+    }
+    @Override
+    public char readChar() throws IOException
+    {
+        return (char) readUnsignedShort();
+    }
+    @Override
+    public int readInt() throws IOException
+    {
+        need(4);
+        int v = 0;
+        for (int i = 0; i < 4; ++i)
+            v = v << 8 | (bytes[position++] & 0xFF);
+        return v;
+    }
+    @Override
+    public long readLong() throws IOException
+    {
+        need(8);
+        long v = 0;
+        for (int i = 0; i < 8; ++i)
+            v = v << 8 | (bytes[position++] & 0xFF);
+        return v;
+    }
+    @Override
+    public float readFloat() throws IOException
+    {
+        return Float.intBitsToFloat(readInt());
+    }
+    @Override
+    public double readDouble() throws IOException
+    {
+        return Double.longBitsToDouble(readLong());
+    }
+    @Override
+    public String readLine()
+    {
+        if (position >= length)
+            return null;
+        StringBuilder line = new StringBuilder();
+        while (position < length)
+        {
+            char c = (char) (bytes[position++] & 0xFF);
+            if (c == '\n')
+                break;
+            if (c != '\r')
+                line.append(c);
+        }
+        return line.toString();
+    }
+    @Override
+    public String readUTF() throws IOException
+    {
+        return DataInputStream.readUTF(this);
+    }
+}
\ No newline at end of file
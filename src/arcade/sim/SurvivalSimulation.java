@@ -0,0 +1,219 @@
+package arcade.sim;
+
+import arcade.sprite.Ball;
+import arcade.sprite.Paddle;
+import arcade.sprite.SurvivalBall;
+import arcade.trace.TraceRecorder;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * The game logic of the Survival game mode: keep every Ball from dropping for as long as possible.
+ * @author Kevin
+ */
+public class SurvivalSimulation implements ScoringSimulation
+{
+    // seconds of game time between new Balls
+    public static final double BALL_INTERVAL = 10.0;
+    // Balls made with the game, enough for over five minutes, so one joining mid-game never has to be made then
+    public static final int RESERVED_BALLS = 32;
+    private static final int DRAWS_PER_BALL = 3; // numbers addBall takes from ballRandom
+    
+    private final World world;
+    private long ballSeed; // from the game's stream, to start ballRandom from
+    private SplittableRandom ballRandom; // every Ball's place is drawn from this, in turn
+    private int ballsAdded; // Balls placed from ballRandom, which with ballSeed is all a saved state needs of it
+    private final Paddle p;
+    private final ArrayList<SurvivalBall> balls;
+    private final ArrayList<SurvivalBall> spareBalls; // Balls not in play, from the reserve or earlier games
+    private double nextBallTime;
+    private int score;
+    private int drops;
+    private TraceRecorder trace;
+    
+    public SurvivalSimulation(World world, SplittableRandom r)
+    {
+        this.world = world;
+        startBallRandom(r.nextLong());
+        p = new Paddle(world);
+        balls = new ArrayList<>(RESERVED_BALLS);
+        spareBalls = new ArrayList<>(RESERVED_BALLS);
+        for (int i = 0; i < RESERVED_BALLS; ++i) // placed as they join
+            spareBalls.add(new SurvivalBall(world, world.getConfig().getBallRadius(), 0, 0, 0, 0));
+        addBall();
+        nextBallTime = BALL_INTERVAL;
+        score = 0;
+        drops = 0;
+        trace = TraceRecorder.OFF;
+    }
+    
+    // starts a new game in place, keeping every Ball object for reuse
+    // r: the new game's stream, so the game plays just as a new SurvivalSimulation would
+    public void reset(SplittableRandom r)
+    {
+        startBallRandom(r.nextLong());
+        spareBalls.addAll(balls);
+        balls.clear();
+        p.reset();
+        addBall();
+        nextBallTime = BALL_INTERVAL;
+        score = 0;
+        drops = 0;
+    }
+    
+    private void startBallRandom(long seed)
+    {
+        ballSeed = seed;
+        ballRandom = new SplittableRandom(seed);
+        ballsAdded = 0;
+    }
+    
+    // adds a Ball in a random place above the Paddle
+    public void addBall()
+    {
+        ++ballsAdded;
+        double x = ballRandom.nextDouble() * world.getWidth();
+        double y = ballRandom.nextDouble() * p.getY(); // can't spawn below paddle
+        double speed = world.getHeight()/600.0; // slower speed than usual
+        double angle = ballRandom.nextDouble() * (180 - 2*Ball.MIN_ANGLE) + (180 + Ball.MIN_ANGLE); // same as possible angles from paddle
+        if (spareBalls.isEmpty())
+            balls.add(new SurvivalBall(world, world.getConfig().getBallRadius(), x, y, speed, angle));
+        else
+        {
+            SurvivalBall b = spareBalls.remove(spareBalls.size() - 1);
+            b.place(x, y, speed, angle);
+            balls.add(b);
+        }
+    }
+    
+    @Override
+    public void update(double timeElapsed)
+    {
+        // a new Ball joins every ten seconds, with same speed/angles as the original
+        if (timeElapsed >= nextBallTime)
+        {
+            long start = trace.start();
+            addBall();
+            nextBallTime += BALL_INTERVAL;
+            trace.end(TraceRecorder.BALL_ADDER, start);
+        }
+        
+        // indexed, so a tick allocates nothing even before the JIT has optimized it
+        for (int i = 0; i < balls.size(); ++i)
+            balls.get(i).savePosition();
+        p.savePosition();
+        long start = trace.start();
+        for (int i = 0; i < balls.size(); ++i)
+        {
+            Ball b = balls.get(i);
+            if (!(b.hitsPaddle(p) || b.hitsWall()))
+                if (b.updatePos())
+                    ++drops;
+        }
+        trace.end(TraceRecorder.COLLISIONS, start);
+        p.updatePos();
+        score = 100*(int)timeElapsed;
+    }
+    
+    @Override
+    public void writeState(DataOutput out) throws IOException
+    {
+        out.writeLong(ballSeed);
+        out.writeInt(ballsAdded);
+        out.writeDouble(nextBallTime);
+        out.writeInt(score);
+        out.writeInt(drops);
+        p.writeState(out);
+        out.writeInt(balls.size());
+        for (int i = 0; i < balls.size(); ++i) // no iterator, since a RewindBuffer writes this every tick
+            balls.get(i).writeState(out);
+    }
+    @Override
+    public void readState(DataInput in) throws IOException
+    {
+        long seed = in.readLong();
+        int added = in.readInt();
+        // a SplittableRandom can't be set back, so it starts over only for another game or to go back before a Ball;
+        // otherwise, as on almost every tick of a rewind, it is only moved on past the Balls placed since
+        if (seed != ballSeed || added < ballsAdded)
+            startBallRandom(seed);
+        for (; ballsAdded < added; ++ballsAdded)
+            for (int i = 0; i < DRAWS_PER_BALL; ++i)
+                ballRandom.nextDouble();
+        nextBallTime = in.readDouble();
+        score = in.readInt();
+        drops = in.readInt();
+        p.readState(in);
+        // Balls are read into the ones already in play, so a RewindBuffer reading a state every tick allocates nothing
+        int count = in.readInt();
+        while (balls.size() > count)
+            spareBalls.add(balls.remove(balls.size() - 1));
+        for (int i = 0; i < count; ++i)
+        {
+            if (i == balls.size())
+                balls.add(spareBalls.isEmpty() ? new SurvivalBall(world, world.getConfig().getBallRadius(), 0, 0, 0, 0)
+                                               : spareBalls.remove(spareBalls.size() - 1));
+            balls.get(i).readState(in);
+        }
+    }
+    
+    @Override
+    public void setTrace(TraceRecorder trace)
+    {
+        this.trace = trace;
+    }
+    
+    @Override
+    public boolean isOver()
+    {
+        return drops > 0;
+    }
+    
+    @Override
+    public World getWorld()
+    {
+        return world;
+    }
+    @Override
+    public Paddle getPaddle()
+    {
+        return p;
+    }
+    public ArrayList<SurvivalBall> getBalls()
+    {
+        return balls;
+    }
+    @Override
+    public int getBallCount()
+    {
+        return balls.size();
+    }
+    @Override
+    public int getBlockCount()
+    {
+        return 0;
+    }
+    @Override
+    public int getCollisionTests()
+    {
+        return 2*balls.size(); // the Paddle and walls for every Ball
+    }
+    @Override
+    public Ball getBall(int i)
+    {
+        return balls.get(i);
+    }
+    @Override
+    public int getScore()
+    {
+        return score;
+    }
+    @Override
+    public int getDrops()
+    {
+        return drops;
+    }
+}
@@ -0,0 +1,48 @@
+package arcade.sim;
+
+/**
+ * The bounds of the play area that every sprite moves within, along with the session's GameConfig.
+ * Stands in for the drawing canvas so that games can be simulated without JavaFX.
+ * @author Kevin
+ */
+public class World
+{
+    // default dimensions, matching the default window size
+    public static final int DEFAULT_WIDTH = 1200;
+    public static final int DEFAULT_HEIGHT = 900;
+    
+    // the approximate amount of space text in the top
+    // left corner of the game screen takes up on either side
+    public static final int VERT_TEXT_SPACE = 60;
+    public static final int HORIZ_TEXT_SPACE = 200;
+    
+    private final GameConfig config;
+    private final double width;
+    private final double height;
+    
+    public World(GameConfig config)
+    {
+        this.config = config;
+        width = config.getWidth();
+        height = config.getHeight();
+    }
+    // default settings scaled to the given size
+    public World(double width, double height)
+    {
+        this(GameConfig.forSize(width, height, false));
+    }
+    
+    public GameConfig getConfig()
+    {
+        return config;
+    }
+    
+    public double getWidth()
+    {
+        return width;
+    }
+    public double getHeight()
+    {
+        return height;
+    }
+}
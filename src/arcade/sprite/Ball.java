@@ -1,21 +1,21 @@
 package arcade.sprite;
 
-import arcade.Arcade;
+import arcade.sim.World;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
 
 /**
  * The Ball object is used to play each game mode.
- * It can be drawn, update its position, and hit surfaces
+ * It can update its position and hit surfaces
  * such as walls, Paddles, and Blocks, reacting accordingly.
+ * Drawing is handled by arcade.render.SpriteRenderer.
  * @author Kevin
  */
 public class Ball
 {
     // variable fields
-    private Color color;
     private double radius;
     private double x;
     private double y;
@@ -23,28 +23,28 @@ public class Ball
     private double angle;
     private double deltaX;
     private double deltaY;
+    private double prevX; // position at the start of the current update, for drawing between updates
+    private double prevY;
     
     // final fields
-    private final Canvas canvas;
-    private final GraphicsContext gc;
+    private final World world;
+    private final double maxSpeed;
+    private final double speedIncrease;
     
     // used to respawn Ball when dropped
-    private final double initialX;
-    private final double initialY;
-    private final double initialSpeed;
-    private final double initialAngle;
+    private double initialX;
+    private double initialY;
+    private double initialSpeed;
+    private double initialAngle;
     
-    // class "constants," some of which are based on window size
-    public static double MAX_SPEED = Arcade.STAGE_HEIGHT/60.0;
+    // class constants; sizes and speeds come from the World's GameConfig
     public static final double MIN_ANGLE = 15.0;
-    public static double DEFAULT_SPEED_INC = Arcade.STAGE_HEIGHT/1800.0;
-    public static double DEFAULT_RADIUS = Arcade.STAGE_HEIGHT/180.0;
-    public static final Color DEFAULT_COLOR = Color.ORANGE;
     
-    public Ball(Canvas canvas, double radius, double x, double y, double speed, double angle)
+    public Ball(World world, double radius, double x, double y, double speed, double angle)
     {
-        this.canvas = canvas;
-        gc = canvas.getGraphicsContext2D();
+        this.world = world;
+        maxSpeed = world.getConfig().getBallMaxSpeed();
+        speedIncrease = world.getConfig().getBallSpeedIncrease();
         this.radius = radius;
         this.x = x;
         this.y = y;
@@ -55,30 +55,72 @@ public class Ball
         initialSpeed = speed;
         initialAngle = angle;
         setDeltaXY();
-        color = DEFAULT_COLOR;
+        savePosition();
     }
     
-    public void draw()
+    // called at the start of every update
+    public void savePosition()
     {
-        if (y > Arcade.VERT_TEXT_SPACE || x > Arcade.HORIZ_TEXT_SPACE) // space allocated to Level text
-        {
-            Color temp = (Color) gc.getFill();
-            gc.setFill(color);
-            gc.fillOval(x, y, 2*radius, 2*radius);
-            gc.setFill(temp);
-        }
+        prevX = x;
+        prevY = y;
+    }
+    
+    // starts the Ball over as if it were just created, so a restarted game can reuse it
+    public void place(double x, double y, double speed, double angle)
+    {
+        this.x = x;
+        this.y = y;
+        this.speed = speed;
+        initialX = x;
+        initialY = y;
+        initialSpeed = speed;
+        initialAngle = angle;
+        setAngle(angle);
+        savePosition();
+    }
+    
+    // writes everything about the Ball that can change during a game, for saving and restoring game states
+    public void writeState(DataOutput out) throws IOException
+    {
+        out.writeDouble(radius);
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeDouble(prevX);
+        out.writeDouble(prevY);
+        out.writeDouble(speed);
+        out.writeDouble(angle);
+        out.writeDouble(initialX);
+        out.writeDouble(initialY);
+        out.writeDouble(initialSpeed);
+        out.writeDouble(initialAngle);
+    }
+    public void readState(DataInput in) throws IOException
+    {
+        radius = in.readDouble();
+        x = in.readDouble();
+        y = in.readDouble();
+        prevX = in.readDouble();
+        prevY = in.readDouble();
+        speed = in.readDouble();
+        angle = in.readDouble();
+        initialX = in.readDouble();
+        initialY = in.readDouble();
+        initialSpeed = in.readDouble();
+        initialAngle = in.readDouble();
+        setDeltaXY();
     }
     
     public boolean updatePos() // returns whether the ball was dropped
     {
         x += deltaX;
         y += deltaY;
-        if (y > canvas.getHeight())
+        if (y > world.getHeight())
         {
             x = initialX;
             y = initialY;
             speed = initialSpeed;
             setAngle(initialAngle);
+            savePosition(); // respawning should not be drawn as movement
             return true;
         }
         return false;
@@ -91,7 +133,7 @@ public class Ball
         boolean flag = false;
         
         // distRatio allows for predicting collision in advance and manually adjusting position accordingly
-        double horizDistRatio = (deltaX > 0 ? (canvas.getWidth() - (x + 2*radius)) : -x) / deltaX;
+        double horizDistRatio = (deltaX > 0 ? (world.getWidth() - (x + 2*radius)) : -x) / deltaX;
         if (horizDistRatio <= 1)
         {
             x += horizDistRatio*deltaX;
@@ -145,16 +187,14 @@ public class Ball
     {
         for (Block bl : blocks)
         {
-            if (x <= bl.getX() + bl.getWidth() && x + 2*radius >= bl.getX() &&
-            y + deltaY <= bl.getY() + bl.getThickness() && y + 2*radius + deltaY >= bl.getY()) // hits bottom or top
+            if (hitsTopOrBottom(bl))
             {
                 reflectVertical();
                 if (bl.isBreakable())
                     blocks.remove(bl);
                 return true;
             }
-            if (y <= bl.getY() + bl.getThickness() && y + 2*radius >= bl.getY() &&
-                x + deltaX <= bl.getX() + bl.getWidth() && x + 2*radius + deltaX >= bl.getX()) // hits either side
+            if (hitsSide(bl))
             {
                 reflectHorizontal();
                 if (bl.isBreakable())
@@ -164,6 +204,36 @@ public class Ball
         }
         return false;
     }
+    // same as above, but only checks Blocks in the grid cells covered by the Ball's path this frame
+    public boolean hitsBlock(BlockGrid grid)
+    {
+        Block bl = grid.query(this, Math.min(x, x + deltaX), Math.min(y, y + deltaY),
+                              Math.max(x, x + deltaX) + 2*radius, Math.max(y, y + deltaY) + 2*radius);
+        if (bl == null)
+            return false;
+        if (hitsTopOrBottom(bl))
+            reflectVertical();
+        else
+            reflectHorizontal();
+        if (bl.isBreakable())
+            grid.remove(bl);
+        return true;
+    }
+    // used by BlockGrid to test the Blocks it finds
+    boolean touches(Block bl)
+    {
+        return hitsTopOrBottom(bl) || hitsSide(bl);
+    }
+    private boolean hitsTopOrBottom(Block bl)
+    {
+        return x <= bl.getX() + bl.getWidth() && x + 2*radius >= bl.getX() &&
+               y + deltaY <= bl.getY() + bl.getThickness() && y + 2*radius + deltaY >= bl.getY();
+    }
+    private boolean hitsSide(Block bl)
+    {
+        return y <= bl.getY() + bl.getThickness() && y + 2*radius >= bl.getY() &&
+               x + deltaX <= bl.getX() + bl.getWidth() && x + 2*radius + deltaX >= bl.getX();
+    }
     
     public void reflectHorizontal()
     {
@@ -176,25 +246,17 @@ public class Ball
     public void reflectPaddle(double distFromLeft)
     {
         // speed up Ball, keep Ball below max speed
-        speed += DEFAULT_SPEED_INC;
-        if (speed > MAX_SPEED)
-            speed = MAX_SPEED;
+        speed += speedIncrease;
+        if (speed > maxSpeed)
+            speed = maxSpeed;
         
         // change angle based on where the Ball hit the Paddle
         setAngle(distFromLeft*(180 - 2*MIN_ANGLE) + (180 + MIN_ANGLE));
     }
     
-    public Canvas getCanvas()
-    {
-        return canvas;
-    }
-    public Color getColor()
-    {
-        return color;
-    }
-    public void setColor(Color color)
+    public World getWorld()
     {
-        this.color = color;
+        return world;
     }
     public double getRadius()
     {
@@ -216,6 +278,14 @@ public class Ball
     {
         return y;
     }
+    public double getPrevX()
+    {
+        return prevX;
+    }
+    public double getPrevY()
+    {
+        return prevY;
+    }
     public void setY(double y)
     {
         this.y = y;
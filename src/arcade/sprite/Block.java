@@ -1,75 +1,41 @@
 package arcade.sprite;
 
-import arcade.Arcade;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-
 /**
  * Blocks are placed within Breakout levels.
  * They can be breakable or unbreakable depending on level design.
- * Collision detection with a Ball and removing Blocks is handled in the Ball and BreakoutLevel classes.
+ * Collision detection with a Ball and removing Blocks is handled in the Ball and BlockGrid classes.
+ * Drawing is handled by arcade.render.SpriteRenderer.
  * @author Kevin
  */
 public class Block
 {
     // all fields
-    private final Canvas canvas;
-    private final GraphicsContext gc;
     private double x;
     private double y; // x and y left non-final to allow for possible implementation of moving blocks
     private final double width;
     private final double thickness;
-    private Color color;
-    private Color unbreakableColor;
     private final boolean breakable;
     
-    // class constants
-    public static double DEFAULT_GAP = Arcade.STAGE_HEIGHT/90.0;
-    public static final Color DEFAULT_COLOR = Color.STEELBLUE;
-    public static final Color DEFAULT_UNBREAKABLE_COLOR = Color.GREY;
+    // bookkeeping for BlockGrid
+    int gridIndex;
+    int listIndex;
+    int gridStamp;
+    boolean removed;
+    boolean changed; // listed in the grid's changes
     
-    public Block(Canvas canvas, double x, double y, double width, double thickness)
+    public Block(double x, double y, double width, double thickness)
     {
-        this.canvas = canvas;
-        gc = canvas.getGraphicsContext2D();
-        this.x = x;
-        this.y = y;
-        this.width = width;
-        this.thickness = thickness;
-        color = DEFAULT_COLOR;
-        unbreakableColor = DEFAULT_UNBREAKABLE_COLOR;
-        breakable = true;
+        this(x, y, width, thickness, true);
     }
-    public Block(Canvas canvas, double x, double y, double width, double thickness, boolean breakable)
+    public Block(double x, double y, double width, double thickness, boolean breakable)
     {
-        this.canvas = canvas;
-        gc = canvas.getGraphicsContext2D();
         this.x = x;
         this.y = y;
         this.width = width;
         this.thickness = thickness;
-        color = DEFAULT_COLOR;
-        unbreakableColor = DEFAULT_UNBREAKABLE_COLOR;
         this.breakable = breakable;
     }
     
-    public Canvas getCanvas()
-    {
-        return canvas;
-    }
-    public Color getColor()
-    {
-        return color;
-    }
-    public void setColor(Color color)
-    {
-        this.color = color;
-    }
-    public void setUnbreakableColor(Color color)
-    {
-        unbreakableColor = color;
-    }
     public double getX()
     {
         return x;
@@ -90,12 +56,4 @@ public class Block
     {
         return breakable;
     }
-    
-    public void draw()
-    {
-        Color temp = (Color) gc.getFill();
-        gc.setFill(breakable ? color : unbreakableColor);
-        gc.fillRect(x, y, width, thickness);
-        gc.setFill(temp);
-    }
 }
\ No newline at end of file
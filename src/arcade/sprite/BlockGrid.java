@@ -0,0 +1,222 @@
+package arcade.sprite;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A uniform grid over the play area, used to find the Blocks a Ball could hit
+ * without checking every Block in a Level every frame.
+ * Each Block is stored in every cell its bounding box overlaps, and the grid
+ * shares its list of Blocks with the Level that created it, so removing a Block
+ * through the grid also removes it from that list. The last Block in the list is moved into its place,
+ * so a removal takes the same time however many Blocks there are; the list's order changes,
+ * but Blocks are still hit in the order they were first given in.
+ * The grid also keeps every Block it started with, so a saved state only says which of them are left,
+ * and reading one puts the same Block objects back instead of making new ones.
+ * Every Block taken out or put back is listed until clearChanges, so whatever draws the Blocks
+ * can repaint just those, without comparing every Block it drew against the list.
+ * @author Kevin
+ */
+public class BlockGrid
+{
+    // keeps the grid from getting huge for levels with very small Blocks
+    public static final int MAX_CELLS_PER_SIDE = 128;
+
+    private final ArrayList<Block> blocks;
+    private final Block[] layout; // every Block the grid started with, in list order
+    private final ArrayList<ArrayList<Block>> cells;
+    private final ArrayList<Block> changes; // Blocks taken out or put back, each once, so it never outgrows the layout
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private int queryStamp; // marks Blocks already checked during a query, since a Block can be in several cells
+    private int lastTests; // Blocks tested by the last query
+
+    public BlockGrid(ArrayList<Block> blocks, double width, double height)
+    {
+        this.blocks = blocks;
+        layout = blocks.toArray(new Block[0]);
+
+        // cells about the size of an average Block keep each query down to a handful of Blocks
+        double size = 0;
+        for (Block bl : blocks)
+            size += (bl.getWidth() + bl.getThickness()) / 2;
+        size = blocks.isEmpty() ? Math.max(width, height) : size / blocks.size();
+        size = Math.max(size, Math.max(width, height) / MAX_CELLS_PER_SIDE);
+        cellSize = size;
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        changes = new ArrayList<>(layout.length);
+        cells = new ArrayList<>(columns*rows);
+        for (int i = 0; i < columns*rows; ++i)
+            cells.add(new ArrayList<>(2));
+        for (int i = 0; i < layout.length; ++i)
+        {
+            Block bl = layout[i];
+            bl.gridIndex = i; // list order decides which Block is hit first, same as checking the list directly
+            bl.listIndex = i;
+            bl.gridStamp = 0;
+            bl.removed = false;
+            bl.changed = false;
+            addToCells(bl);
+        }
+        queryStamp = 0;
+    }
+    private void addToCells(Block bl)
+    {
+        for (int r = row(bl.getY()); r <= row(bl.getY() + bl.getThickness()); ++r)
+            for (int c = column(bl.getX()); c <= column(bl.getX() + bl.getWidth()); ++c)
+                cells.get(r*columns + c).add(bl);
+    }
+
+    // returns the first Block, in list order, that passes the Ball's collision test
+    // within the given bounding box, or null if there is none
+    public Block query(Ball b, double minX, double minY, double maxX, double maxY)
+    {
+        ++queryStamp;
+        lastTests = 0;
+        Block first = null;
+        for (int r = row(minY); r <= row(maxY); ++r)
+            for (int c = column(minX); c <= column(maxX); ++c)
+            {
+                ArrayList<Block> cell = cells.get(r*columns + c);
+                for (int i = 0; i < cell.size(); ++i) // indexed, since this runs every tick
+                {
+                    Block bl = cell.get(i);
+                    if (bl.gridStamp != queryStamp)
+                    {
+                        bl.gridStamp = queryStamp;
+                        if (first == null || bl.gridIndex < first.gridIndex)
+                        {
+                            ++lastTests;
+                            if (b.touches(bl))
+                                first = bl;
+                        }
+                    }
+                }
+            }
+        return first;
+    }
+
+    // removes a Block from every cell it is stored in and from the Level's list
+    public void remove(Block bl)
+    {
+        for (int r = row(bl.getY()); r <= row(bl.getY() + bl.getThickness()); ++r)
+            for (int c = column(bl.getX()); c <= column(bl.getX() + bl.getWidth()); ++c)
+                cells.get(r*columns + c).remove(bl);
+        Block last = blocks.remove(blocks.size() - 1);
+        if (last != bl)
+        {
+            blocks.set(bl.listIndex, last);
+            last.listIndex = bl.listIndex;
+        }
+        bl.removed = true;
+        changed(bl);
+    }
+    private void changed(Block bl)
+    {
+        if (!bl.changed)
+        {
+            bl.changed = true;
+            changes.add(bl);
+        }
+    }
+
+    // writes which Blocks are left, one bit per Block the grid started with
+    public void writeState(DataOutput out) throws IOException
+    {
+        out.writeInt(layout.length);
+        long word = 0;
+        for (int i = 0; i < layout.length; ++i)
+        {
+            if (!layout[i].removed)
+                word |= 1L << (i & 63);
+            if ((i & 63) == 63 || i == layout.length - 1)
+            {
+                out.writeLong(word);
+                word = 0;
+            }
+        }
+    }
+    // reads which Blocks are left, taking out or putting back Blocks to match
+    // returns whether any Block changed; if none did, as on most ticks of a rewind, nothing is rebuilt
+    public boolean readState(DataInput in) throws IOException
+    {
+        int count = in.readInt();
+        if (count != layout.length)
+            throw new IOException("State is for a layout of " + count + " blocks, but this level has " + layout.length);
+        boolean changed = false;
+        long word = 0;
+        for (int i = 0; i < layout.length; ++i)
+        {
+            if ((i & 63) == 0)
+                word = in.readLong();
+            boolean removed = (word & 1L << (i & 63)) == 0;
+            if (layout[i].removed != removed)
+            {
+                layout[i].removed = removed;
+                changed(layout[i]);
+                changed = true;
+            }
+        }
+        if (changed) // the lists keep their capacity, so this allocates nothing
+        {
+            blocks.clear();
+            for (int i = 0; i < cells.size(); ++i)
+                cells.get(i).clear();
+            for (Block bl : layout)
+                if (!bl.removed)
+                {
+                    bl.listIndex = blocks.size();
+                    blocks.add(bl);
+                    addToCells(bl);
+                }
+        }
+        return changed;
+    }
+
+    // cell coordinates are clamped so that anything outside the play area lands in an edge cell
+    private int column(double x)
+    {
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor(x / cellSize)));
+    }
+    private int row(double y)
+    {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / cellSize)));
+    }
+
+    public ArrayList<Block> getBlocks()
+    {
+        return blocks;
+    }
+    // Blocks taken out or put back since the last clearChanges, whether they're in the list now or not
+    public ArrayList<Block> getChanges()
+    {
+        return changes;
+    }
+    public void clearChanges()
+    {
+        for (int i = 0; i < changes.size(); ++i)
+            changes.get(i).changed = false;
+        changes.clear();
+    }
+    public int getLastTests()
+    {
+        return lastTests;
+    }
+    public double getCellSize()
+    {
+        return cellSize;
+    }
+    public int getColumns()
+    {
+        return columns;
+    }
+    public int getRows()
+    {
+        return rows;
+    }
+}
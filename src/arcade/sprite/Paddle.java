@@ -1,22 +1,22 @@
 package arcade.sprite;
 
-import arcade.Arcade;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
+import arcade.sim.World;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Paddles are used to hit Ball objects and can be moved with the mouse or keyboard,
- * as defined by the PaddleAimer, PaddleMover, and PaddleStopper objects.
+ * as defined by the PaddleAimer, KeyPressedActions, and KeyReleasedActions objects.
+ * Drawing is handled by arcade.render.SpriteRenderer.
  * @author Kevin
  */
 public class Paddle
 {
     // all fields
-    private final Canvas canvas;
-    private final GraphicsContext gc;
-    private Color color;
+    private final World world;
     private double x;
+    private double prevX; // position at the start of the current update, for drawing between updates
     private final double y;
     private final double width;
     private final double thickness;
@@ -24,34 +24,53 @@ public class Paddle
     private boolean moveLeft;
     private boolean moveRight;
     
-    // class constants
-    public static double DEFAULT_WIDTH = Arcade.STAGE_HEIGHT/3.0;
-    public static double DEFAULT_THICKNESS = Arcade.STAGE_HEIGHT/90.0;
-    public static double DEFAULT_SPEED = Arcade.STAGE_HEIGHT/90.0;
-    public static final Color DEFAULT_COLOR = Color.STEELBLUE;
-    
-    public Paddle(Canvas canvas)
+    // default size and speed come from the World's GameConfig
+    public Paddle(World world)
     {
-        this(canvas, DEFAULT_WIDTH, DEFAULT_THICKNESS, DEFAULT_SPEED);
+        this(world, world.getConfig().getPaddleWidth(), world.getConfig().getPaddleThickness(), world.getConfig().getPaddleSpeed());
     }
-    public Paddle(Canvas canvas, double width, double thickness, double speed)
+    public Paddle(World world, double width, double thickness, double speed)
     {
-        this.canvas = canvas;
-        gc = canvas.getGraphicsContext2D();
-        this.x = (canvas.getWidth() - width) / 2; // center of canvas
-        this.y = 11*canvas.getHeight()/12; // default position, defined by canvas size
+        this.world = world;
+        this.x = (world.getWidth() - width) / 2; // center of play area
+        this.y = 11*world.getHeight()/12; // default position, defined by play area size
         this.width = width;
         this.thickness = thickness;
         this.speed = speed;
-        color = DEFAULT_COLOR;
+        prevX = x;
+    }
+    
+    // moves the Paddle back to the center and stops it, for a restarted game
+    public void reset()
+    {
+        x = (world.getWidth() - width) / 2;
+        prevX = x;
+        moveLeft = false;
+        moveRight = false;
     }
     
-    public void draw()
+    // writes everything about the Paddle that can change during a game, for saving and restoring game states
+    public void writeState(DataOutput out) throws IOException
     {
-        Color temp = (Color) gc.getFill();
-        gc.setFill(color);
-        gc.fillRect(x, y, width, thickness);
-        gc.setFill(temp);
+        out.writeDouble(x);
+        out.writeDouble(prevX);
+        out.writeDouble(speed);
+        out.writeBoolean(moveLeft);
+        out.writeBoolean(moveRight);
+    }
+    public void readState(DataInput in) throws IOException
+    {
+        x = in.readDouble();
+        prevX = in.readDouble();
+        speed = in.readDouble();
+        moveLeft = in.readBoolean();
+        moveRight = in.readBoolean();
+    }
+    
+    // called at the start of every update
+    public void savePosition()
+    {
+        prevX = x;
     }
     
     public void updatePos()
@@ -62,21 +81,13 @@ public class Paddle
             x += speed;
         if (x < 0)
             x = 0;
-        if (x > canvas.getWidth() - width)
-            x = canvas.getWidth() - width;
+        if (x > world.getWidth() - width)
+            x = world.getWidth() - width;
     }
     
-    public Canvas getCanvas()
-    {
-        return canvas;
-    }
-    public Color getColor()
+    public World getWorld()
     {
-        return color;
-    }
-    public void setColor(Color color)
-    {
-        this.color = color;
+        return world;
     }
     public double getX()
     {
@@ -87,8 +98,12 @@ public class Paddle
         this.x = x;
         if (x < 0)
             this.x = 0;
-        if (x > canvas.getWidth() - width)
-            this.x = canvas.getWidth() - width;
+        if (x > world.getWidth() - width)
+            this.x = world.getWidth() - width;
+    }
+    public double getPrevX()
+    {
+        return prevX;
     }
     public double getY()
     {
@@ -1,6 +1,6 @@
 package arcade.sprite;
 
-import javafx.scene.canvas.Canvas;
+import arcade.sim.World;
 
 /**
  * The variant of Ball used in the Survival game mode.
@@ -8,9 +8,9 @@ import javafx.scene.canvas.Canvas;
  */
 public class SurvivalBall extends Ball
 {
-    public SurvivalBall(Canvas canvas, double radius, double x, double y, double speed, double angle)
+    public SurvivalBall(World world, double radius, double x, double y, double speed, double angle)
     {
-        super(canvas, radius, x, y, speed, angle);
+        super(world, radius, x, y, speed, angle);
     }
     
     @Override
@@ -19,7 +19,7 @@ public class SurvivalBall extends Ball
     {
         setX(getX() + getDeltaX());
         setY(getY() + getDeltaY());
-        return getY() > getCanvas().getHeight();
+        return getY() > getWorld().getHeight();
     }
     
     @Override
@@ -0,0 +1,30 @@
+package arcade.trace;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Opening and loading an audio clip, such as Survival's music.
+ * @author Kevin
+ */
+@Name("arcade.AudioLoad")
+@Label("Audio Load")
+@Description("Loading an audio clip")
+public class AudioLoadEvent extends GameEvent
+{
+    @Label("Clip")
+    String clip;
+    @Label("Loaded")
+    boolean loaded;
+    
+    public AudioLoadEvent(String clip)
+    {
+        this.clip = clip;
+    }
+    
+    public void setLoaded(boolean loaded)
+    {
+        this.loaded = loaded;
+    }
+}
\ No newline at end of file
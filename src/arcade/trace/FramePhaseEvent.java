@@ -0,0 +1,48 @@
+package arcade.trace;
+
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of a GameLoop frame: a tick's update, the frame's draw, or the handling of a Level's end.
+ * Hundreds are committed every second while recording, so they leave out the stack trace,
+ * which always points to GameLoop.handle anyway.
+ * None are created while no recording wants them, so frames allocate nothing for them then.
+ * @author Kevin
+ */
+@Name("arcade.FramePhase")
+@Label("Frame Phase")
+@Description("One phase of a game loop frame")
+@StackTrace(false)
+public class FramePhaseEvent extends GameEvent
+{
+    public static final String UPDATE = "update";
+    public static final String DRAW = "draw";
+    public static final String LEVEL_END = "level end";
+    private static final EventType TYPE = EventType.getEventType(FramePhaseEvent.class);
+    
+    @Label("Phase")
+    String phase;
+    @Label("Tick")
+    @Description("Tick of the whole game")
+    long tick;
+    
+    public FramePhaseEvent(String phase, long tick)
+    {
+        this.phase = phase;
+        this.tick = tick;
+    }
+    
+    // a new event, already begun, or null while no recording is taking these events
+    public static FramePhaseEvent start(String phase, long tick)
+    {
+        if (!TYPE.isEnabled())
+            return null;
+        FramePhaseEvent event = new FramePhaseEvent(phase, tick);
+        event.begin();
+        return event;
+    }
+}
\ No newline at end of file
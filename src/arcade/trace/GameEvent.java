@@ -0,0 +1,37 @@
+package arcade.trace;
+
+import arcade.sim.FrameStats;
+import arcade.sim.Simulation;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * A JDK Flight Recorder event of the game's, carrying the number of Balls and Blocks in play
+ * so stutters can be matched against the amount of work, GC pauses, and disk activity in the same recording.
+ * Events cost next to nothing while no recording is running, so they are always left in.
+ * Record them along with the JVM's own events with e.g. -XX:StartFlightRecording:filename=arcade.jfr;
+ * they are all in the Arcade category.
+ * @author Kevin
+ */
+@Category("Arcade")
+public abstract class GameEvent extends Event
+{
+    @Label("Balls")
+    int balls;
+    @Label("Blocks")
+    int blocks;
+    
+    // counts from the Simulation being played
+    public void setCounts(Simulation sim)
+    {
+        balls = sim.getBallCount();
+        blocks = sim.getBlockCount();
+    }
+    // counts as of the last frame drawn, for events away from the game thread
+    public void setCounts(FrameStats stats)
+    {
+        balls = stats.getBalls();
+        blocks = stats.getBlocks();
+    }
+}
\ No newline at end of file
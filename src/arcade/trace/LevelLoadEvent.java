@@ -0,0 +1,23 @@
+package arcade.trace;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Building the next Level, or starting a standalone one over, after the player clicks.
+ * @author Kevin
+ */
+@Name("arcade.LevelLoad")
+@Label("Level Load")
+@Description("Building the next Level in loadNextLevel")
+public class LevelLoadEvent extends GameEvent
+{
+    @Label("Mode")
+    String mode;
+    
+    public LevelLoadEvent(String mode)
+    {
+        this.mode = mode;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package arcade.trace;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded scores being written to one high score store's files.
+ * @author Kevin
+ */
+@Name("arcade.ScoreWrite")
+@Label("Score Write")
+@Description("High scores written to disk")
+public class ScoreWriteEvent extends GameEvent
+{
+    @Label("File")
+    String file;
+    @Label("Scores")
+    int scores;
+    
+    public ScoreWriteEvent(String file, int scores)
+    {
+        this.file = file;
+        this.scores = scores;
+    }
+}
\ No newline at end of file
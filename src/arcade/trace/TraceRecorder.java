@@ -0,0 +1,234 @@
+package arcade.trace;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a timeline of every frame, as spans of the game thread: each frame, tick, collision phase,
+ * drawing of the Paddle, Balls, Blocks, and HUD, and timed game events such as Survival adding a Ball
+ * or Chaos changing colors. Spans are written in Chrome's trace event format, so a single slow frame
+ * can be opened in a trace viewer (e.g. chrome://tracing or ui.perfetto.dev) and seen in full.
+ * Recording only stores a few numbers in a ring buffer, without locking or allocating;
+ * a background thread takes them out and writes them to the file a few times a second.
+ * If it falls a whole buffer behind, the oldest spans are lost and the trace says how many.
+ * Only one thread may record into a TraceRecorder; OFF records nothing and is what every game uses by default.
+ * @author Kevin
+ */
+public class TraceRecorder implements Closeable
+{
+    public static final int CAPACITY = 1 << 16; // spans, several seconds' worth
+    public static final long DRAIN_MILLIS = 100;
+    public static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    public static final TraceRecorder OFF = new TraceRecorder();
+    
+    // kinds of span
+    public static final int FRAME = 0;
+    public static final int TICK = 1;
+    public static final int COLLISIONS = 2;
+    public static final int DRAW = 3;
+    public static final int DRAW_PADDLE = 4;
+    public static final int DRAW_BALLS = 5;
+    public static final int DRAW_BLOCKS = 6;
+    public static final int DRAW_HUD = 7;
+    public static final int LEVEL_END = 8;
+    public static final int REWIND = 9;
+    public static final int BALL_ADDER = 10;
+    public static final int COLOR_CHANGE = 11;
+    private static final String[] NAMES = {"frame", "tick", "collisions", "draw", "paddle", "balls", "blocks", "HUD",
+                                           "level end", "rewind", "add Ball", "change colors"};
+    private static final String[] CATEGORIES = {"frame", "update", "update", "draw", "draw", "draw", "draw", "draw",
+                                                "draw", "update", "timeline", "timeline"};
+    
+    private final boolean on;
+    private final long origin; // System.nanoTime() that the trace starts at
+    private long tick; // game tick of the spans being recorded
+    // the ring: span i takes SLOT longs from (i % CAPACITY)*SLOT, for its start, end, tick,
+    // and its kind with the Balls and Blocks on screen for frames, packed into one long
+    private static final int SLOT = 4;
+    private final long[] ring;
+    private volatile long head; // spans recorded
+    // only used by the writer thread
+    private long tail; // spans taken out of the ring
+    private long dropped;
+    private final Writer out;
+    private final StringBuilder line;
+    private final ScheduledExecutorService writer;
+    
+    private TraceRecorder()
+    {
+        on = false;
+        origin = 0;
+        ring = null;
+        out = null;
+        line = null;
+        writer = null;
+    }
+    // starts a trace in file, replacing what was there
+    public TraceRecorder(File file) throws IOException
+    {
+        on = true;
+        origin = System.nanoTime();
+        ring = new long[CAPACITY*SLOT];
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        line = new StringBuilder();
+        // the array's closing bracket is optional, so the file can be opened even if the game never closes it
+        out.write("[{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"Arcade\"}},\n"
+                + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"Game loop\"}}");
+        writer = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread thread = new Thread(r, "Trace writer");
+            thread.setDaemon(true); // close() writes what is left
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drain, DRAIN_MILLIS, DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    public boolean isOn()
+    {
+        return on;
+    }
+    
+    // the game tick that the spans recorded next belong to
+    public void setTick(long tick)
+    {
+        this.tick = tick;
+    }
+    
+    // the start of a span, to be passed to end(); free when off
+    public long start()
+    {
+        return on ? System.nanoTime() : 0;
+    }
+    // records a span of the given kind from start until now
+    public void end(int kind, long start)
+    {
+        if (on)
+            record(kind, start, System.nanoTime(), 0, 0);
+    }
+    // records a frame from start until now, with what was on screen
+    public void endFrame(long start, int ballCount, int blockCount)
+    {
+        if (on)
+            record(FRAME, start, System.nanoTime(), ballCount, blockCount);
+    }
+    private void record(int kind, long start, long end, int ballCount, int blockCount)
+    {
+        long h = head;
+        int i = ((int) h & (CAPACITY - 1))*SLOT;
+        ring[i] = start;
+        ring[i + 1] = end;
+        ring[i + 2] = tick;
+        ring[i + 3] = (long) kind << 48 | (long) (ballCount & 0xFFFFFF) << 24 | (blockCount & 0xFFFFFF);
+        head = h + 1; // publishes the span to the writer
+    }
+    
+    // writes every span recorded since the last time, on the writer thread
+    private synchronized void drain()
+    {
+        try
+        {
+            long h = head;
+            long from = Math.max(tail, h - CAPACITY);
+            long lost = from - tail; // overwritten before they could be read
+            for (long s = from; s < h; ++s)
+            {
+                int i = ((int) s & (CAPACITY - 1))*SLOT;
+                long start = ring[i];
+                long end = ring[i + 1];
+                long t = ring[i + 2];
+                long packed = ring[i + 3];
+                VarHandle.loadLoadFence(); // the span is read before checking whether it was being overwritten
+                if (head - CAPACITY >= s) // slot reused while being read
+                {
+                    ++lost;
+                    continue;
+                }
+                int kind = (int) (packed >>> 48);
+                int ballCount = (int) (packed >>> 24) & 0xFFFFFF;
+                int blockCount = (int) packed & 0xFFFFFF;
+                line.setLength(0);
+                line.append(",\n{\"name\":\"").append(NAMES[kind]).append("\",\"cat\":\"").append(CATEGORIES[kind])
+                    .append("\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":");
+                appendMicros(start - origin);
+                line.append(",\"dur\":");
+                appendMicros(end - start);
+                line.append(",\"args\":{\"tick\":").append(t);
+                if (kind == FRAME)
+                {
+                    line.append(",\"balls\":").append(ballCount).append(",\"blocks\":").append(blockCount).append("}},\n")
+                        .append("{\"name\":\"sprites\",\"ph\":\"C\",\"pid\":1,\"tid\":1,\"ts\":");
+                    appendMicros(start - origin);
+                    line.append(",\"args\":{\"balls\":").append(ballCount).append(",\"blocks\":").append(blockCount);
+                }
+                line.append("}}");
+                out.append(line);
+            }
+            if (lost > 0)
+            {
+                dropped += lost;
+                line.setLength(0);
+                line.append(",\n{\"name\":\"lost ").append(lost).append(" spans\",\"ph\":\"i\",\"s\":\"g\",\"pid\":1,\"tid\":1,\"ts\":");
+                appendMicros(System.nanoTime() - origin);
+                line.append('}');
+                out.append(line);
+            }
+            tail = h;
+            out.flush();
+        }
+        catch (IOException e)
+        {
+            System.err.println("Could not write trace: " + e);
+            writer.shutdown();
+        }
+    }
+    // trace times are in microseconds, kept to the nanosecond
+    private void appendMicros(long nanos)
+    {
+        line.append(nanos / 1000).append('.');
+        long frac = nanos % 1000;
+        if (frac < 100)
+            line.append('0');
+        if (frac < 10)
+            line.append('0');
+        line.append(frac);
+    }
+    
+    // spans lost because the writer fell behind
+    public synchronized long getDropped()
+    {
+        return dropped;
+    }
+    
+    // writes what is left in the ring and finishes the file; spans recorded afterwards are ignored
+    @Override
+    public void close() throws IOException
+    {
+        if (!on)
+            return;
+        writer.shutdown();
+        try
+        {
+            writer.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this)
+        {
+            drain();
+            out.write("\n]\n");
+            out.close();
+        }
+    }
+}
\ No newline at end of file